@@ -0,0 +1,32 @@
+package com.ejemploAPI.jmh;
+
+import com.ejemploAPI.EjemploApiApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/* Arranca la aplicación sin servidor web sobre un H2 en memoria propio de cada benchmark
+   Los argumentos tienen prioridad sobre los application.properties del classpath, así que da igual qué
+   perfil de recursos (dev, prod) esté activo. StartupDataLoader precarga los enums como en la aplicación
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String database) {
+        return new SpringApplicationBuilder(EjemploApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:" + database + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=validate",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.flyway.baseline-on-migrate=true",
+                        "--config.export.snapshot.precompress=false",
+                        "--logging.level.root=WARN");
+    }
+}
@@ -0,0 +1,65 @@
+package com.ejemploAPI.jmh;
+
+import com.ejemploAPI.benchmark.ConfigDocumentGenerator;
+import com.ejemploAPI.dtos.ImportResultDTO;
+import com.ejemploAPI.services.ConfigExportService;
+import com.ejemploAPI.services.ConfigService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/* Importación y exportación completas contra H2 con un documento generado (ver ConfigDocumentGenerator)
+   La primera importación se hace en el setup: crea los atributos y tipos, y las medidas son reimportaciones
+   del mismo documento, que sustituyen los hijos de cada rama, así que la base de datos no crece entre iteraciones
+   Forma del documento con -p, por ejemplo: -Djmh.args="ConfigImportExport -p width=50 -p depth=5 -prof gc"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ConfigImportExportBenchmark {
+
+    @Param("10")
+    public int width;
+
+    @Param("3")
+    public int depth;
+
+    @Param("5")
+    public int listLength;
+
+    @Param("0.3")
+    public double enumDensity;
+
+    private ConfigurableApplicationContext context;
+    private ConfigService configService;
+    private ConfigExportService configExportService;
+    private String json;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("jmh_import_export");
+        configService = context.getBean(ConfigService.class);
+        configExportService = context.getBean(ConfigExportService.class);
+        json = ConfigDocumentGenerator.toJson(new ConfigDocumentGenerator.Shape(width, depth, listLength, enumDensity), 42);
+        configService.importJson(json);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ImportResultDTO importJson() {
+        return configService.importJson(json);
+    }
+
+    @Benchmark
+    public String exportToJson() {
+        return configExportService.exportToJson();
+    }
+}
@@ -0,0 +1,61 @@
+package com.ejemploAPI.jmh;
+
+import com.ejemploAPI.services.AttributeTypeService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/* Búsqueda de valores enum: normalizarTextos sola y findClosestAllowedValue contra el diccionario en memoria
+   Cada operación recorre todas las entradas contra los tres enums precargados; hay valores exactos, en
+   minúsculas, sin acentos, con espacios y que no existen
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class EnumMatchingBenchmark {
+
+    private static final String[] INPUTS = {
+            "MIÉRCOLES", "miercoles", "  Sábado ", "rojo", "Azul", "septiembre", "Enero", "desconocido", "NARANJA", "123"
+    };
+
+    private ConfigurableApplicationContext context;
+    private AttributeTypeService attributeTypeService;
+    private Long[] typeIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("jmh_enum_matching");
+        attributeTypeService = context.getBean(AttributeTypeService.class);
+        typeIds = new Long[]{
+                attributeTypeService.ensureEnumType("día").getId(),
+                attributeTypeService.ensureEnumType("color").getId(),
+                attributeTypeService.ensureEnumType("mes").getId()
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void normalizarTextos(Blackhole blackhole) {
+        for (String input : INPUTS) {
+            blackhole.consume(AttributeTypeService.normalizarTextos(input));
+        }
+    }
+
+    @Benchmark
+    public void findClosestAllowedValue(Blackhole blackhole) {
+        for (Long typeId : typeIds) {
+            for (String input : INPUTS) {
+                blackhole.consume(attributeTypeService.findClosestAllowedValue(typeId, input));
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.ejemploAPI.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.support.TransactionAwareCacheManagerProxy;
+
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/* Cachés en memoria de las lecturas por id (DTOs de Config, Attribute y AttributeType)
+   Caffeine con tamaño máximo y caducidad (config.cache.spec). El gestor es transaccional: los evict
+   que se hacen dentro de una transacción se aplican al confirmarla, así una lectura concurrente no vuelve
+   a cachear el valor antiguo antes del commit. La caducidad acota cualquier carrera que quede
+   exportSnapshotExecutor reconstruye la copia de la exportación (ExportSnapshotCache): un hilo y una sola tarea en
+   cola, las demás se descartan porque esa tarea ya leerá el estado más reciente
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String CONFIGS = "configs";
+    public static final String ATTRIBUTES = "attributes";
+    public static final String ATTRIBUTE_TYPES = "attributeTypes";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${config.cache.spec:maximumSize=10000,expireAfterWrite=10m}") String spec) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
+        caffeineCacheManager.setCaffeine(Caffeine.from(spec));
+        caffeineCacheManager.setCacheNames(List.of(CONFIGS, ATTRIBUTES, ATTRIBUTE_TYPES));
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+
+    @Bean(name = "exportSnapshotExecutor")
+    public ThreadPoolTaskExecutor exportSnapshotExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("export-snapshot-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        return executor;
+    }
+}
@@ -0,0 +1,42 @@
+package com.ejemploAPI.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/* Pools de hilos de la importación
+   configImportExecutor => tareas de la importación en paralelo. Cada hilo usa una conexión para su transacción y,
+   de forma puntual, otra para dar de alta atributos, así que threads debe quedar por debajo de la mitad del pool
+   de conexiones (Hikari: 10 por defecto). La cola es acotada: si se llena, la tarea la ejecuta el hilo que reparte
+   importJobExecutor => trabajos de importación en segundo plano. Con la cola llena se rechazan los nuevos
+   trabajos, para que varias importaciones grandes a la vez no agoten las conexiones
+ */
+@Configuration
+public class ImportExecutorConfig {
+
+    @Bean(name = "configImportExecutor")
+    public ThreadPoolTaskExecutor configImportExecutor(@Value("${config.import.parallel.threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 4);
+        executor.setThreadNamePrefix("config-import-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    @Bean(name = "importJobExecutor")
+    public ThreadPoolTaskExecutor importJobExecutor(@Value("${config.import.jobs.threads:2}") int threads,
+                                                    @Value("${config.import.jobs.queue-capacity:10}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("import-job-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+}
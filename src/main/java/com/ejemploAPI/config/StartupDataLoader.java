@@ -7,7 +7,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
 import java.util.List;
 
 @Component
@@ -15,6 +14,11 @@ public class StartupDataLoader implements CommandLineRunner {
 
     private static final Logger log = LoggerFactory.getLogger(StartupDataLoader.class);
 
+    // Valores de los enums precargados. Públicos para que los generadores de datos de prueba usen los mismos
+    public static final List<String> DIAS = List.of("LUNES", "MARTES", "MIÉRCOLES", "JUEVES", "VIERNES", "SÁBADO", "DOMINGO");
+    public static final List<String> COLORES = List.of("ROJO", "AZUL", "AMARILLO", "VERDE");
+    public static final List<String> MESES = List.of("ENERO", "FEBRERO", "MARZO", "ABRIL", "MAYO", "JUNIO", "JULIO", "AGOSTO", "SEPTIEMBRE", "OCTUBRE", "NOVIEMBRE", "DICIEMBRE");
+
     private final AttributeTypeService attributeTypeService;
 
     public StartupDataLoader(AttributeTypeService attributeTypeService) {
@@ -26,18 +30,15 @@ public class StartupDataLoader implements CommandLineRunner {
         try {
             // Precargar "día" enum con días de la semana
             AttributeType dia = attributeTypeService.ensureEnumType("día");
-            List<String> dias = Arrays.asList("LUNES", "MARTES", "MIÉRCOLES", "JUEVES", "VIERNES", "SÁBADO", "DOMINGO");
-            attributeTypeService.addValuesToAttributeType(dia, dias);
+            attributeTypeService.addValuesToAttributeType(dia, DIAS);
 
             // Precargar "color" enum con colores básicos
             AttributeType color = attributeTypeService.ensureEnumType("color");
-            List<String> colores = Arrays.asList("ROJO", "AZUL", "AMARILLO", "VERDE");
-            attributeTypeService.addValuesToAttributeType(color, colores);
+            attributeTypeService.addValuesToAttributeType(color, COLORES);
 
             // Precargar "mes" enum con el nombre de los meses
             AttributeType mes = attributeTypeService.ensureEnumType("mes");
-            List<String> meses = Arrays.asList("ENERO", "FEBRERO", "MARZO", "ABRIL", "MAYO", "JUNIO", "JULIO", "AGOSTO", "SEPTIEMBRE", "OCTUBRE", "NOVIEMBRE", "DICIEMBRE");
-            attributeTypeService.addValuesToAttributeType(mes, meses);
+            attributeTypeService.addValuesToAttributeType(mes, MESES);
 
             log.info("StartupDataLoader: enums precargados: 'día' y 'color'");
         } catch (Exception ex) {
@@ -1,5 +1,7 @@
 package com.ejemploAPI.config.exceptions;
 
+import com.ejemploAPI.services.TransportCompression;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -32,4 +34,16 @@ public class GlobalExceptionHandler {
     public ResponseEntity<String> handleInvalidJson(InvalidJsonFormatException ex) {
         return ResponseEntity.badRequest().body(ex.getMessage());
     }
+
+    @ExceptionHandler(PayloadTooLargeException.class)
+    public ResponseEntity<String> handlePayloadTooLarge(PayloadTooLargeException ex) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(UnsupportedContentEncodingException.class)
+    public ResponseEntity<String> handleUnsupportedContentEncoding(UnsupportedContentEncodingException ex) {
+        return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+                .header(HttpHeaders.ACCEPT_ENCODING, TransportCompression.SUPPORTED_CODINGS)
+                .body(ex.getMessage());
+    }
 }
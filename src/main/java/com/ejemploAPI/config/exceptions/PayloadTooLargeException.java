@@ -0,0 +1,15 @@
+package com.ejemploAPI.config.exceptions;
+
+public class PayloadTooLargeException extends RuntimeException {
+
+    private final long maxBytes;
+
+    public PayloadTooLargeException(long maxBytes) {
+        super("El cuerpo descomprimido supera el máximo de " + maxBytes + " bytes");
+        this.maxBytes = maxBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
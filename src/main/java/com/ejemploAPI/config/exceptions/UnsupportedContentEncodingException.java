@@ -0,0 +1,15 @@
+package com.ejemploAPI.config.exceptions;
+
+public class UnsupportedContentEncodingException extends RuntimeException {
+
+    private final String contentEncoding;
+
+    public UnsupportedContentEncodingException(String contentEncoding) {
+        super("Content-Encoding no soportado: " + contentEncoding);
+        this.contentEncoding = contentEncoding;
+    }
+
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+}
@@ -1,17 +1,23 @@
 package com.ejemploAPI.controllers;
 
 import com.ejemploAPI.dtos.AttributeDTO;
+import com.ejemploAPI.dtos.KeysetPageDTO;
 import com.ejemploAPI.mappers.AttributeMapper;
 import com.ejemploAPI.models.Attribute;
 import com.ejemploAPI.models.AttributeType;
 import com.ejemploAPI.repositories.AttributeRepository;
 import com.ejemploAPI.repositories.AttributeTypeRepository;
+import com.ejemploAPI.services.ExportSnapshotCache;
+import com.ejemploAPI.services.ListingService;
+import com.ejemploAPI.services.LookupCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Optional;
@@ -24,28 +30,52 @@ public class AttributeController {
 
     private final AttributeRepository attributeRepository;
     private final AttributeTypeRepository attributeTypeRepository;
+    private final LookupCache lookupCache;
+    private final ListingService listingService;
+    private final ExportSnapshotCache exportSnapshotCache;
 
-    public AttributeController(AttributeRepository attributeRepository, AttributeTypeRepository attributeTypeRepository) {
+    public AttributeController(AttributeRepository attributeRepository, AttributeTypeRepository attributeTypeRepository,
+                               LookupCache lookupCache, ListingService listingService,
+                               ExportSnapshotCache exportSnapshotCache) {
         this.attributeRepository = attributeRepository;
         this.attributeTypeRepository = attributeTypeRepository;
+        this.lookupCache = lookupCache;
+        this.listingService = listingService;
+        this.exportSnapshotCache = exportSnapshotCache;
     }
 
     @GetMapping
     public List<AttributeDTO> list() {
         log.info("Solicitud recibida: listar todos los atributos");
-        List<AttributeDTO> list = attributeRepository.findAll().stream()
+        List<AttributeDTO> list = attributeRepository.findAllRows().stream()
                 .map(AttributeMapper::toDTO)
                 .toList();
         log.info("Cantidad de atributos encontrados: {}", list.size());
         return list;
     }
 
+    @GetMapping("/page")
+    public KeysetPageDTO<AttributeDTO> page(@RequestParam(required = false) Long afterId,
+                                            @RequestParam(defaultValue = "" + ListingService.DEFAULT_PAGE_SIZE) int limit) {
+        log.info("Solicitud recibida: página de atributos después del ID {} (límite {})", afterId, limit);
+        return listingService.attributePage(afterId, limit);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> stream() {
+        log.info("Solicitud recibida: listado de atributos en streaming");
+        StreamingResponseBody body = out -> {
+            int filas = listingService.writeAttributes(out);
+            log.info("Listado de atributos en streaming finalizado. Filas: {}", filas);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<AttributeDTO> get(@PathVariable Long id) {
         log.info("Solicitud recibida: obtener atributo con ID {}", id);
 
-        return attributeRepository.findById(id)
-                .map(AttributeMapper::toDTO)
+        return Optional.ofNullable(lookupCache.findAttribute(id))
                 .map(dto -> {
                     log.info("Atributo encontrado: ID {}", id);
                     return ResponseEntity.ok(dto);
@@ -77,6 +107,7 @@ public class AttributeController {
         }
 
         Attribute saved = attributeRepository.save(AttributeMapper.toEntity(dto, type));
+        exportSnapshotCache.invalidate();
         log.info("Atributo creado correctamente con ID {}", saved.getId());
 
         return ResponseEntity.status(201).body(AttributeMapper.toDTO(saved));
@@ -105,6 +136,8 @@ public class AttributeController {
 
         AttributeMapper.updateEntity(a, dto, type);
         attributeRepository.save(a);
+        lookupCache.evictAttribute(id);
+        exportSnapshotCache.invalidate();
         log.info("Atributo actualizado correctamente. ID {}", id);
 
         return ResponseEntity.ok(AttributeMapper.toDTO(a));
@@ -122,6 +155,8 @@ public class AttributeController {
 
         try {
             attributeRepository.deleteById(id);
+            lookupCache.evictAttribute(id);
+            exportSnapshotCache.invalidate();
             log.info("Atributo eliminado correctamente. ID {}", id);
             return ResponseEntity.status(HttpStatus.NO_CONTENT)
                     .body("Elemento borrado correctamente");
@@ -1,16 +1,23 @@
 package com.ejemploAPI.controllers;
 
 import com.ejemploAPI.dtos.AttributeTypeDTO;
+import com.ejemploAPI.dtos.KeysetPageDTO;
 import com.ejemploAPI.mappers.AttributeTypeMapper;
 import com.ejemploAPI.models.AttributeType;
 import com.ejemploAPI.repositories.AttributeTypeRepository;
+import com.ejemploAPI.services.EnumDictionary;
+import com.ejemploAPI.services.ExportSnapshotCache;
+import com.ejemploAPI.services.ListingService;
+import com.ejemploAPI.services.LookupCache;
 import io.swagger.v3.oas.annotations.Operation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Optional;
@@ -23,9 +30,19 @@ public class AttributeTypeController {
     private static final Logger log = LoggerFactory.getLogger(AttributeTypeController.class);
 
     private final AttributeTypeRepository attributeTypeRepository;
-
-    public AttributeTypeController(AttributeTypeRepository attributeTypeRepository) {
+    private final EnumDictionary enumDictionary;
+    private final LookupCache lookupCache;
+    private final ListingService listingService;
+    private final ExportSnapshotCache exportSnapshotCache;
+
+    public AttributeTypeController(AttributeTypeRepository attributeTypeRepository, EnumDictionary enumDictionary,
+                                   LookupCache lookupCache, ListingService listingService,
+                                   ExportSnapshotCache exportSnapshotCache) {
         this.attributeTypeRepository = attributeTypeRepository;
+        this.enumDictionary = enumDictionary;
+        this.lookupCache = lookupCache;
+        this.listingService = listingService;
+        this.exportSnapshotCache = exportSnapshotCache;
     }
 
     @GetMapping
@@ -37,14 +54,33 @@ public class AttributeTypeController {
         return list.stream().map(AttributeTypeMapper::toDTO).collect(Collectors.toList());
     }
 
+    @GetMapping("/page")
+    @Operation(summary = "Listar AttributeType por páginas")
+    public KeysetPageDTO<AttributeTypeDTO> page(@RequestParam(required = false) Long afterId,
+                                                @RequestParam(defaultValue = "" + ListingService.DEFAULT_PAGE_SIZE) int limit) {
+        log.info("Solicitud recibida: página de AttributeType después del ID {} (límite {})", afterId, limit);
+        return listingService.attributeTypePage(afterId, limit);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Listar todos los AttributeType en streaming (NDJSON)")
+    public ResponseEntity<StreamingResponseBody> stream() {
+        log.info("Solicitud recibida: listado de AttributeType en streaming");
+        StreamingResponseBody body = out -> {
+            int filas = listingService.writeAttributeTypes(out);
+            log.info("Listado de AttributeType en streaming finalizado. Filas: {}", filas);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Listar un tipo de atributo por id")
     public ResponseEntity<AttributeTypeDTO> getById(@PathVariable Long id) {
         log.info("Solicitud para obtener AttributeType por ID: {}", id);
-        return attributeTypeRepository.findById(id)
-                .map(at -> {
-                    log.info("AttributeType encontrado: {}", at.getId());
-                    return ResponseEntity.ok(AttributeTypeMapper.toDTO(at));
+        return Optional.ofNullable(lookupCache.findAttributeType(id))
+                .map(dto -> {
+                    log.info("AttributeType encontrado: {}", dto.getId());
+                    return ResponseEntity.ok(dto);
                 })
                 .orElseGet(() -> {
                     log.warn("AttributeType no encontrado con ID: {}", id);
@@ -59,6 +95,7 @@ public class AttributeTypeController {
         AttributeType entity = AttributeTypeMapper.toEntity(dto);
         entity.setId(null); // asegurar creación
         AttributeType saved = attributeTypeRepository.save(entity);
+        exportSnapshotCache.invalidate();
         log.info("AttributeType creado con ID: {}", saved.getId());
         return ResponseEntity.status(HttpStatus.CREATED).body(AttributeTypeMapper.toDTO(saved));
     }
@@ -80,6 +117,9 @@ public class AttributeTypeController {
         existing.setIsList(dto.getIsList());
 
         AttributeType updated = attributeTypeRepository.save(existing);
+        enumDictionary.invalidate();
+        lookupCache.evictAttributeType(id);
+        exportSnapshotCache.invalidate();
         log.info("AttributeType actualizado correctamente: {}", updated.getId());
         return ResponseEntity.ok(AttributeTypeMapper.toDTO(updated));
     }
@@ -97,6 +137,9 @@ public class AttributeTypeController {
 
         try {
             attributeTypeRepository.deleteById(id);
+            enumDictionary.invalidate();
+            lookupCache.evictAttributeType(id);
+            exportSnapshotCache.invalidate();
             log.info("AttributeType eliminado correctamente. ID: {}", id);
             return ResponseEntity.status(HttpStatus.NO_CONTENT).body("Elemento borrado correctamente");
 
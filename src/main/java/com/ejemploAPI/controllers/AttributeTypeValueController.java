@@ -1,16 +1,22 @@
 package com.ejemploAPI.controllers;
 
 import com.ejemploAPI.dtos.AttributeTypeValueDTO;
+import com.ejemploAPI.dtos.KeysetPageDTO;
 import com.ejemploAPI.mappers.AttributeTypeValueMapper;
 import com.ejemploAPI.models.AttributeType;
 import com.ejemploAPI.models.AttributeTypeValue;
 import com.ejemploAPI.repositories.AttributeTypeRepository;
 import com.ejemploAPI.repositories.AttributeTypeValueRepository;
+import com.ejemploAPI.services.EnumDictionary;
+import com.ejemploAPI.services.ExportSnapshotCache;
+import com.ejemploAPI.services.ListingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Optional;
@@ -24,25 +30,51 @@ public class AttributeTypeValueController {
 
     private final AttributeTypeValueRepository valueRepository;
     private final AttributeTypeRepository typeRepository;
+    private final EnumDictionary enumDictionary;
+    private final ListingService listingService;
+    private final ExportSnapshotCache exportSnapshotCache;
 
     public AttributeTypeValueController(AttributeTypeValueRepository valueRepository,
-                                        AttributeTypeRepository typeRepository) {
+                                        AttributeTypeRepository typeRepository,
+                                        EnumDictionary enumDictionary,
+                                        ListingService listingService,
+                                        ExportSnapshotCache exportSnapshotCache) {
         this.valueRepository = valueRepository;
         this.typeRepository = typeRepository;
+        this.enumDictionary = enumDictionary;
+        this.listingService = listingService;
+        this.exportSnapshotCache = exportSnapshotCache;
     }
 
     @GetMapping
     public List<AttributeTypeValueDTO> list() {
         log.info("Solicitando listado completo de AttributeTypeValue");
-        return valueRepository.findAll().stream()
+        return valueRepository.findAllRows().stream()
                 .map(AttributeTypeValueMapper::toDTO)
                 .collect(Collectors.toList());
     }
 
+    @GetMapping("/page")
+    public KeysetPageDTO<AttributeTypeValueDTO> page(@RequestParam(required = false) Long afterId,
+                                                     @RequestParam(defaultValue = "" + ListingService.DEFAULT_PAGE_SIZE) int limit) {
+        log.info("Solicitud recibida: página de AttributeTypeValue después del ID {} (límite {})", afterId, limit);
+        return listingService.attributeTypeValuePage(afterId, limit);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> stream() {
+        log.info("Solicitud recibida: listado de AttributeTypeValue en streaming");
+        StreamingResponseBody body = out -> {
+            int filas = listingService.writeAttributeTypeValues(out);
+            log.info("Listado de AttributeTypeValue en streaming finalizado. Filas: {}", filas);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<AttributeTypeValueDTO> getById(@PathVariable Long id) {
         log.info("Solicitando AttributeTypeValue con ID {}", id);
-        return valueRepository.findById(id)
+        return valueRepository.findRowById(id)
                 .map(AttributeTypeValueMapper::toDTO)
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> {
@@ -66,6 +98,8 @@ public class AttributeTypeValueController {
         entity.setAttributeType(maybeType.get());
 
         AttributeTypeValue saved = valueRepository.save(entity);
+        enumDictionary.invalidate();
+        exportSnapshotCache.invalidate();
         log.info("AttributeTypeValue creado con ID {}", saved.getId());
         return ResponseEntity.status(HttpStatus.CREATED).body(AttributeTypeValueMapper.toDTO(saved));
     }
@@ -89,6 +123,8 @@ public class AttributeTypeValueController {
         }
 
         AttributeTypeValue updated = valueRepository.save(entity);
+        enumDictionary.invalidate();
+        exportSnapshotCache.invalidate();
         log.info("AttributeTypeValue actualizado correctamente ID {}", updated.getId());
         return ResponseEntity.ok(AttributeTypeValueMapper.toDTO(updated));
     }
@@ -103,6 +139,8 @@ public class AttributeTypeValueController {
         }
 
         valueRepository.deleteById(id);
+        enumDictionary.invalidate();
+        exportSnapshotCache.invalidate();
         log.info("AttributeTypeValue eliminado correctamente ID {}", id);
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
@@ -3,14 +3,36 @@ package com.ejemploAPI.controllers;
 import com.ejemploAPI.config.exceptions.DuplicateKeyException;
 import com.ejemploAPI.config.exceptions.InvalidEnumValueException;
 import com.ejemploAPI.dtos.ConfigDTO;
+import com.ejemploAPI.dtos.ImportResultDTO;
+import com.ejemploAPI.dtos.KeysetPageDTO;
+import com.ejemploAPI.services.ConfigExportService;
+import com.ejemploAPI.services.ConfigFormat;
 import com.ejemploAPI.services.ConfigService;
+import com.ejemploAPI.services.ExportSnapshotCache;
+import com.ejemploAPI.services.ImportContext;
+import com.ejemploAPI.services.ListingService;
+import com.ejemploAPI.services.TransportCompression;
+import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -18,11 +40,21 @@ import java.util.List;
 public class ConfigController {
 
     private final ConfigService configService;
+    private final ConfigExportService configExportService;
+    private final ListingService listingService;
+    private final ExportSnapshotCache exportSnapshotCache;
+    private final TransportCompression transportCompression;
 
     private static final Logger log = LoggerFactory.getLogger(ConfigController.class);
 
-    public ConfigController(ConfigService configService) {
+    public ConfigController(ConfigService configService, ConfigExportService configExportService,
+                            ListingService listingService, ExportSnapshotCache exportSnapshotCache,
+                            TransportCompression transportCompression) {
         this.configService = configService;
+        this.configExportService = configExportService;
+        this.listingService = listingService;
+        this.exportSnapshotCache = exportSnapshotCache;
+        this.transportCompression = transportCompression;
     }
 
     @GetMapping
@@ -31,6 +63,25 @@ public class ConfigController {
         return configService.findAll();
     }
 
+    @GetMapping("/page")
+    @Operation(summary = "Listar Config por páginas")
+    public KeysetPageDTO<ConfigDTO> page(@RequestParam(required = false) Long afterId,
+                                         @RequestParam(defaultValue = "" + ListingService.DEFAULT_PAGE_SIZE) int limit) {
+        log.info("Solicitud recibida: página de Config después del ID {} (límite {})", afterId, limit);
+        return listingService.configPage(afterId, limit);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Listar todos los Config en streaming (NDJSON)")
+    public ResponseEntity<StreamingResponseBody> stream() {
+        log.info("Solicitud recibida: listado de Config en streaming");
+        StreamingResponseBody body = out -> {
+            int filas = listingService.writeConfigs(out);
+            log.info("Listado de Config en streaming finalizado. Filas: {}", filas);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ConfigDTO> get(@PathVariable Long id) {
         try {
@@ -41,6 +92,17 @@ public class ConfigController {
         }
     }
 
+    @GetMapping("/{id}/ancestors")
+    @Operation(summary = "Listar los ancestros de un Config, desde la raíz hasta su padre")
+    public ResponseEntity<List<ConfigDTO>> ancestors(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(configService.findAncestors(id));
+        } catch (RuntimeException e) {
+            log.warn("Config no encontrado con ID {}", id);
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @PostMapping
     public ResponseEntity<ConfigDTO> create(@RequestBody ConfigDTO dto) {
         return ResponseEntity.status(HttpStatus.CREATED).body(configService.create(dto));
@@ -92,14 +154,58 @@ public class ConfigController {
             "   \"meses\" : [\"enero\" , \"abril\"]\n" +
             "   \n" +
             "}")
-    public ResponseEntity<String> importJson(@RequestBody byte[] rawJsonBytes) {
-        //Pasamos un array de bytes en lugar de una Map para evitar que Spring parsee el Json y así lograr que lance Exception por clave duplicada
+    public ResponseEntity<?> importJson(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true,
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(type = "object")))
+            InputStream body,
+            @Parameter(description = "Si es true el JSON se procesa en streaming, sin cargar el documento completo en memoria. No se combina con incremental ni parallel")
+            @RequestParam(defaultValue = "false") boolean streaming,
+            @Parameter(description = "Si es true se compara el JSON con lo guardado y solo se insertan, actualizan o borran los nodos que cambian. No se combina con streaming ni parallel")
+            @RequestParam(defaultValue = "false") boolean incremental,
+            @Parameter(description = "Si es true las claves raíz (y los hijos de los Map grandes) se importan en paralelo, cada una en su transacción. No se combina con streaming ni incremental")
+            @RequestParam(defaultValue = "false") boolean parallel,
+            @Parameter(description = "Si es true la respuesta es un JSON con los nodos procesados, creados, actualizados y eliminados y el tiempo; si no, un texto")
+            @RequestParam(defaultValue = "false") boolean summary,
+            @Parameter(description = "gzip o zstd si el cuerpo va comprimido")
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            @Parameter(description = "application/json (por defecto), " + ConfigFormat.SMILE_VALUE + " o " + MediaType.APPLICATION_CBOR_VALUE)
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType) throws IOException {
+        ConfigService.checkImportModes(streaming, incremental, parallel);
+        // El descompresor va en streaming delante del parser
+        body = transportCompression.decode(body, contentEncoding);
+        ConfigFormat format = ConfigFormat.fromContentType(contentType);
+        //Leemos el cuerpo en crudo en lugar de una Map para evitar que Spring parsee el Json y así lograr que lance Exception por clave duplicada
         try {
-            // Convertir los bytes en un String
-            String rawJson = new String(rawJsonBytes);
-            log.info("Inicio importación JSON");
-            configService.importJson(rawJson);
-            return ResponseEntity.ok("JSON importado correctamente");
+            ImportResultDTO result;
+            if (format.isBinary() && !streaming) {
+                // Smile y CBOR se leen a JsonNode y siguen el mismo camino que el JSON
+                JsonNode rootNode = configService.readTree(body, format);
+                log.info("Inicio importación {} (incremental={}, parallel={})", format, incremental, parallel);
+                if (incremental) {
+                    result = configService.importJsonIncremental(rootNode, new ImportContext());
+                } else if (parallel) {
+                    result = configService.importJsonParallel(rootNode, new ImportContext());
+                } else {
+                    result = configService.importJson(rootNode, new ImportContext());
+                }
+            } else if (incremental) {
+                String rawJson = new String(body.readAllBytes());
+                log.info("Inicio importación JSON incremental");
+                result = configService.importJsonIncremental(rawJson);
+            } else if (parallel) {
+                String rawJson = new String(body.readAllBytes());
+                log.info("Inicio importación JSON en paralelo");
+                result = configService.importJsonParallel(rawJson);
+            } else if (streaming) {
+                log.info("Inicio importación {} en streaming", format);
+                result = configService.importJsonStream(body, format);
+            } else {
+                // Convertir los bytes en un String
+                String rawJson = new String(body.readAllBytes());
+                log.info("Inicio importación JSON");
+                result = configService.importJson(rawJson);
+            }
+            return summary ? ResponseEntity.ok(result) : ResponseEntity.ok("JSON importado correctamente");
         } catch (DuplicateKeyException e) {
             log.warn("JSON inválido: clave duplicada detectada. Detalle: {}", e.getMessage());
             return ResponseEntity.badRequest().body("JSON inválido: clave duplicada detectada");
@@ -110,14 +216,100 @@ public class ConfigController {
     }
 
     @GetMapping("/export")
-    @Operation(summary = "Generar un Json con los datos que tenemos en la base de datos")
-    public ResponseEntity<String> exportJson() {
+    @Operation(summary = "Generar un Json con los datos que tenemos en la base de datos",
+            description = "Se sirve desde una copia en memoria con ETag. Con If-None-Match y la copia sin cambios responde 304 sin consultar la base de datos. "
+                    + "Con Accept " + ConfigFormat.SMILE_VALUE + " o " + MediaType.APPLICATION_CBOR_VALUE + " se devuelve en ese formato binario")
+    public ResponseEntity<byte[]> exportJson(WebRequest request,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        ConfigFormat format = ConfigFormat.fromAccept(accept);
+        // checkNotModified deja preparada la respuesta 304 con su ETag
+        String currentEtag = exportSnapshotCache.currentEtag(format);
+        if (currentEtag != null && request.checkNotModified(currentEtag)) return null;
         try {
-            String json = configService.exportToJson();
-            return ResponseEntity.ok(json);
-        } catch (RuntimeException e) {
+            ExportSnapshotCache.Snapshot snapshot = exportSnapshotCache.get();
+            if (request.checkNotModified(snapshot.etag(format))) return null;
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .eTag(snapshot.etag(format))
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT)
+                    .contentType(format.getMediaType());
+            // Los formatos binarios se sirven sin comprimir: ya ocupan menos y no se guardan comprimidos
+            if (format.isBinary()) return response.body(exportSnapshotCache.body(snapshot, format));
+            String coding = transportCompression.negotiate(acceptEncoding);
+            byte[] encoded = coding != null ? snapshot.encoded().get(coding) : null;
+            if (encoded != null) {
+                return response.header(HttpHeaders.CONTENT_ENCODING, coding).body(encoded);
+            }
+            return response.body(snapshot.json());
+        } catch (IOException | RuntimeException e) {
+            log.error("Error al generar la exportación: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("{\"error\": \"Error al generar la exportación\"}");
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body("{\"error\": \"Error al generar la exportación\"}".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @GetMapping(value = "/export/stream",
+            produces = {MediaType.APPLICATION_JSON_VALUE, ConfigFormat.SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    @Operation(summary = "Exportar el JSON en streaming", description = "Escribe el JSON (o Smile/CBOR según el Accept) en la respuesta según se recorre el árbol, sin generarlo antes en memoria")
+    public ResponseEntity<StreamingResponseBody> exportJsonStream(
+            @Parameter(description = "false para un JSON compacto, pensado para consumidores automáticos")
+            @RequestParam(defaultValue = "true") boolean pretty,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            HttpServletResponse response) {
+        ConfigFormat format = ConfigFormat.fromAccept(accept);
+        log.info("Inicio exportación {} en streaming (pretty={})", format, pretty);
+        StreamingResponseBody body = out -> {
+            int nodos = configExportService.writeJson(out, pretty, format);
+            log.info("Exportación {} en streaming finalizada. Nodos exportados: {}", format, nodos);
+        };
+        return ResponseEntity.ok().contentType(format.getMediaType())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT)
+                .body(compressed(body, acceptEncoding, response));
+    }
+
+    @GetMapping(value = "/{id}/tree", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Exportar una rama a partir del id de un Config")
+    public ResponseEntity<StreamingResponseBody> getTree(@PathVariable Long id,
+                                                         @RequestParam(defaultValue = "true") boolean pretty,
+                                                         @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                         HttpServletResponse response) {
+        if (!configExportService.exists(id)) {
+            log.warn("Config no encontrado con ID {}", id);
+            return ResponseEntity.notFound().build();
         }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .body(compressed(out -> configExportService.writeSubtreeJson(id, out, pretty), acceptEncoding, response));
+    }
+
+    @GetMapping(value = "/tree", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Exportar una rama a partir de su ruta", description = "La ruta son los nombres de atributo separados por puntos, p.ej. dirección.PruebaHijo")
+    public ResponseEntity<StreamingResponseBody> getTreeByPath(@RequestParam String path,
+                                                               @RequestParam(defaultValue = "true") boolean pretty,
+                                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                               HttpServletResponse response) {
+        return configExportService.resolvePath(path)
+                .map(id -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).varyBy(HttpHeaders.ACCEPT_ENCODING)
+                        .body(compressed(out -> configExportService.writeSubtreeJson(id, out, pretty), acceptEncoding, response)))
+                .orElseGet(() -> {
+                    log.warn("No existe ningún Config en la ruta '{}'", path);
+                    return ResponseEntity.notFound().build();
+                });
+    }
+
+    /* Envuelve el cuerpo en streaming con el compresor que acepta el cliente
+       Content-Encoding se pone en la respuesta solo si el cuerpo llega al umbral de compresión
+     */
+    private StreamingResponseBody compressed(StreamingResponseBody body, String acceptEncoding, HttpServletResponse response) {
+        String coding = transportCompression.negotiate(acceptEncoding);
+        return out -> {
+            try (OutputStream encoded = transportCompression.encodeAboveThreshold(out, coding,
+                    c -> response.setHeader(HttpHeaders.CONTENT_ENCODING, c))) {
+                body.writeTo(encoded);
+            }
+        };
     }
 }
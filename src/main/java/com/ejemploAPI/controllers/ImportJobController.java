@@ -0,0 +1,77 @@
+package com.ejemploAPI.controllers;
+
+import com.ejemploAPI.dtos.ImportJobDTO;
+import com.ejemploAPI.mappers.ImportJobMapper;
+import com.ejemploAPI.services.ConfigService;
+import com.ejemploAPI.services.ImportJob;
+import com.ejemploAPI.services.ImportJobService;
+import com.ejemploAPI.services.TransportCompression;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/config/import-jobs")
+public class ImportJobController {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportJobController.class);
+
+    private final ImportJobService importJobService;
+    private final TransportCompression transportCompression;
+
+    public ImportJobController(ImportJobService importJobService, TransportCompression transportCompression) {
+        this.importJobService = importJobService;
+        this.transportCompression = transportCompression;
+    }
+
+    @PostMapping
+    @Operation(summary = "Importar un JSON en segundo plano",
+            description = "Devuelve enseguida el id del trabajo; el progreso se consulta con GET /api/config/import-jobs/{id}")
+    public ResponseEntity<?> submit(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true,
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(type = "object")))
+            InputStream body,
+            @Parameter(description = "Si es true se compara el JSON con lo guardado y solo se insertan, actualizan o borran los nodos que cambian. No se combina con parallel")
+            @RequestParam(defaultValue = "false") boolean incremental,
+            @Parameter(description = "Si es true las claves raíz (y los hijos de los Map grandes) se importan en paralelo. No se combina con incremental")
+            @RequestParam(defaultValue = "false") boolean parallel,
+            @Parameter(description = "gzip o zstd si el cuerpo va comprimido")
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding) throws IOException {
+        ConfigService.checkImportModes(false, incremental, parallel);
+        // El cuerpo se lee antes de responder: el trabajo sigue después de cerrarse la petición
+        String rawJson = new String(transportCompression.decode(body, contentEncoding).readAllBytes());
+        try {
+            ImportJob job = importJobService.submit(rawJson, incremental, parallel);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/config/import-jobs/" + job.getId()))
+                    .body(ImportJobMapper.toDTO(job));
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("Demasiadas importaciones en curso, inténtalo más tarde");
+        }
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Estado y progreso de un trabajo de importación")
+    public ResponseEntity<ImportJobDTO> getById(@PathVariable String id) {
+        return importJobService.findById(id)
+                .map(job -> ResponseEntity.ok(ImportJobMapper.toDTO(job)))
+                .orElseGet(() -> {
+                    log.warn("Trabajo de importación no encontrado con ID: {}", id);
+                    return ResponseEntity.notFound().build();
+                });
+    }
+}
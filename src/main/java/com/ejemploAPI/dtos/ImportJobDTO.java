@@ -0,0 +1,23 @@
+package com.ejemploAPI.dtos;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+public class ImportJobDTO {
+
+    private String id;
+    private String estado;
+
+    private int nodosProcesados;
+    private int nodosCreados;
+    private int nodosActualizados;
+    private int nodosEliminados;
+
+    private long tiempoMs;
+
+    // Solo si el estado es ERROR
+    private String error;
+
+}
@@ -0,0 +1,19 @@
+package com.ejemploAPI.dtos;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+public class ImportResultDTO {
+
+    private String mensaje;
+
+    private int nodosProcesados;
+    private int nodosCreados;
+    private int nodosActualizados;
+    private int nodosEliminados;
+
+    private long tiempoMs;
+
+}
@@ -0,0 +1,17 @@
+package com.ejemploAPI.dtos;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+public class KeysetPageDTO<T> {
+
+    private List<T> items;
+
+    // Valor de afterId para pedir la página siguiente, null si no hay más
+    private Long nextAfterId;
+
+}
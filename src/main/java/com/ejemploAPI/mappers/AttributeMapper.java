@@ -3,6 +3,7 @@ package com.ejemploAPI.mappers;
 import com.ejemploAPI.dtos.AttributeDTO;
 import com.ejemploAPI.models.Attribute;
 import com.ejemploAPI.models.AttributeType;
+import com.ejemploAPI.projections.AttributeRow;
 
 public class AttributeMapper {
 
@@ -17,6 +18,14 @@ public class AttributeMapper {
         return dto;
     }
 
+    public static AttributeDTO toDTO(AttributeRow row) {
+        AttributeDTO dto = new AttributeDTO();
+        dto.setId(row.getId());
+        dto.setName(row.getName());
+        dto.setAttributeTypeId(row.getAttributeTypeId());
+        return dto;
+    }
+
     // DTO -> Entity (nuevo método que recibe AttributeType)
     public static Attribute toEntity(AttributeDTO dto, AttributeType type) {
         Attribute entity = new Attribute();
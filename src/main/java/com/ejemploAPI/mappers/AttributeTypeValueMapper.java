@@ -2,6 +2,7 @@ package com.ejemploAPI.mappers;
 
 import com.ejemploAPI.dtos.AttributeTypeValueDTO;
 import com.ejemploAPI.models.AttributeTypeValue;
+import com.ejemploAPI.projections.AttributeTypeValueRow;
 
 public class AttributeTypeValueMapper {
 
@@ -16,6 +17,14 @@ public class AttributeTypeValueMapper {
         return dto;
     }
 
+    public static AttributeTypeValueDTO toDTO(AttributeTypeValueRow row) {
+        AttributeTypeValueDTO dto = new AttributeTypeValueDTO();
+        dto.setId(row.getId());
+        dto.setValue(row.getValue());
+        dto.setAttributeTypeId(row.getAttributeTypeId());
+        return dto;
+    }
+
     public static AttributeTypeValue toEntity(AttributeTypeValueDTO dto) {
         AttributeTypeValue entity = new AttributeTypeValue();
         entity.setId(dto.getId());
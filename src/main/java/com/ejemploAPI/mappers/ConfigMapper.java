@@ -3,6 +3,7 @@ package com.ejemploAPI.mappers;
 import com.ejemploAPI.dtos.ConfigDTO;
 import com.ejemploAPI.models.Attribute;
 import com.ejemploAPI.models.Config;
+import com.ejemploAPI.projections.ConfigRow;
 import org.springframework.beans.BeanUtils;
 
 public class ConfigMapper {
@@ -24,6 +25,19 @@ public class ConfigMapper {
         return dto;
     }
 
+    // Desde la proyección: mismos campos, sin tocar las relaciones
+    public static ConfigDTO toDTO(ConfigRow row) {
+        ConfigDTO dto = new ConfigDTO();
+        dto.setId(row.getId());
+        dto.setDefaultValue(row.getDefaultValue());
+        dto.setDescripcion(row.getDescripcion());
+        dto.setApplicationNode(row.getApplicationNode());
+        dto.setIsCustom(row.getIsCustom());
+        dto.setAttributeId(row.getAttributeId());
+        dto.setParentId(row.getParentId());
+        return dto;
+    }
+
     public static Config toEntity(ConfigDTO dto) {
         Config entity = new Config();
         entity.setId(dto.getId());
@@ -0,0 +1,24 @@
+package com.ejemploAPI.mappers;
+
+import com.ejemploAPI.dtos.ImportJobDTO;
+import com.ejemploAPI.services.ImportContext;
+import com.ejemploAPI.services.ImportJob;
+
+public class ImportJobMapper {
+
+    public static ImportJobDTO toDTO(ImportJob job) {
+        ImportJobDTO dto = new ImportJobDTO();
+        dto.setId(job.getId());
+        dto.setEstado(job.getEstado().name());
+        ImportContext ctx = job.getContext();
+        if (ctx != null) {
+            dto.setNodosProcesados(ctx.getNodosProcesados().get());
+            dto.setNodosCreados(ctx.getNodosCreados().get());
+            dto.setNodosActualizados(ctx.getNodosActualizados().get());
+            dto.setNodosEliminados(ctx.getNodosEliminados().get());
+        }
+        dto.setTiempoMs(job.getTiempoMs());
+        dto.setError(job.getError());
+        return dto;
+    }
+}
@@ -18,7 +18,7 @@ public class AttributeTypeValue {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "attribute_type_id")
     private AttributeType attributeType;
 
@@ -1,21 +1,28 @@
 package com.ejemploAPI.models;
 
+import com.ejemploAPI.config.exceptions.InvalidJsonFormatException;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.util.Objects;
 
 @Entity
-@Table(name = "config")
+@Table(name = "config", indexes = @Index(name = "idx_config_path", columnList = "path"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -30,15 +37,49 @@ public class Config {
 
     private String descripcion;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "attribute_id")
     private Attribute attribute;
 
-    @ManyToOne
+    // Fuera de toString/equals/hashCode para que no recorran (y carguen) toda la cadena de ancestros
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "parent")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Config parent;
 
     private String applicationNode; 
     private Boolean isCustom; 
 
+    /* Longitud máxima del path (ver V4__RellenarPathConfig): con ids de hasta 19 cifras caben 150 niveles
+       Un Config que no cabría no se guarda y la petición falla con 400. Cambiarla necesita una migración nueva
+     */
+    public static final int PATH_MAX_LENGTH = 3072;
+
+    // Ruta materializada con los ids de los ancestros: "/" en los nodos raíz, "/1/5/" en un hijo del 5 que cuelga del 1
+    // Los descendientes de un nodo son los que tienen path LIKE path + id + '/%'
+    @Column(length = PATH_MAX_LENGTH)
+    private String path;
+
+    @PrePersist
+    private void initPath() {
+        if (path == null) path = childPathOf(parent);
+    }
+
+    // Path que corresponde a un hijo directo de parent
+    public static String childPathOf(Config parent) {
+        if (parent == null) return "/";
+        String path = (parent.getPath() != null ? parent.getPath() : "/") + parent.getId() + "/";
+        if (path.length() > PATH_MAX_LENGTH) {
+            throw new InvalidJsonFormatException("Jerarquía demasiado profunda: el path de los hijos del Config id="
+                    + parent.getId() + " supera los " + PATH_MAX_LENGTH + " caracteres");
+        }
+        return path;
+    }
+
+    // Prefijo de path que comparten todos los descendientes de este nodo
+    public String descendantsPathPrefix() {
+        return childPathOf(this);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.ejemploAPI.projections;
+
+/* Columnas de un Attribute con el id de su tipo, sin cargar el AttributeType
+ */
+public interface AttributeRow {
+
+    Long getId();
+
+    String getName();
+
+    Long getAttributeTypeId();
+}
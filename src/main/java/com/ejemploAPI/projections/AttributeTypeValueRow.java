@@ -0,0 +1,15 @@
+package com.ejemploAPI.projections;
+
+/* Valor permitido de un enum con el id de su tipo y si ese tipo es enum
+   Sirve para el listado y para construir el diccionario de enums con una sola consulta
+ */
+public interface AttributeTypeValueRow {
+
+    Long getId();
+
+    Long getAttributeTypeId();
+
+    String getValue();
+
+    Boolean getIsEnum();
+}
@@ -0,0 +1,21 @@
+package com.ejemploAPI.projections;
+
+/* Columnas de un Config con los ids de su atributo y de su padre
+   Lo que necesita ConfigDTO, leído en una consulta plana sin cargar entidades ni la cadena de padres
+ */
+public interface ConfigRow {
+
+    Long getId();
+
+    String getDefaultValue();
+
+    String getDescripcion();
+
+    Long getAttributeId();
+
+    Long getParentId();
+
+    String getApplicationNode();
+
+    Boolean getIsCustom();
+}
@@ -0,0 +1,26 @@
+package com.ejemploAPI.projections;
+
+/* Fila plana de un Config con su atributo y su tipo
+   Es lo único que necesita la exportación para reconstruir el JSON, sin cargar entidades
+ */
+public interface ConfigTreeRow {
+
+    Long getId();
+
+    Long getParentId();
+
+    String getDefaultValue();
+
+    String getAttributeName();
+
+    Long getAttributeTypeId();
+
+    String getType();
+
+    Boolean getIsList();
+
+    Boolean getIsEnum();
+
+    // Ids de la rama con ceros a la izquierda separados por '/': los descendientes empiezan por sortKey + "/"
+    String getSortKey();
+}
@@ -1,12 +1,44 @@
 package com.ejemploAPI.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.ejemploAPI.models.Attribute;
+import com.ejemploAPI.projections.AttributeRow;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AttributeRepository extends JpaRepository<Attribute, Long> {
     Optional<Attribute> findByName(String name);
+
+    List<Attribute> findAllByNameIn(Collection<String> names);
+
+    // Con el tipo ya cargado, para usar el Attribute fuera de la transacción que lo lee
+    @EntityGraph(attributePaths = "attributeType")
+    Optional<Attribute> findWithAttributeTypeByName(String name);
+
+    String ROW_COLUMNS = "SELECT a.id AS id, a.name AS name, a.attributeType.id AS attributeTypeId ";
+
+    @Query(ROW_COLUMNS + "FROM Attribute a ORDER BY a.id")
+    List<AttributeRow> findAllRows();
+
+    @Query(ROW_COLUMNS + "FROM Attribute a WHERE a.id = :id")
+    Optional<AttributeRow> findRowById(@Param("id") Long id);
+
+    @Query(ROW_COLUMNS + "FROM Attribute a WHERE a.id > :afterId ORDER BY a.id")
+    List<AttributeRow> findRowsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ConfigRepository.STREAM_FETCH_SIZE))
+    @Query(ROW_COLUMNS + "FROM Attribute a ORDER BY a.id")
+    Stream<AttributeRow> streamAllRows();
 }
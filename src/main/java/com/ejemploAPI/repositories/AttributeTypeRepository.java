@@ -1,12 +1,17 @@
 package com.ejemploAPI.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.ejemploAPI.models.AttributeType;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AttributeTypeRepository extends JpaRepository<AttributeType, Long> {
@@ -16,4 +21,9 @@ public interface AttributeTypeRepository extends JpaRepository<AttributeType, Lo
 	Optional<AttributeType> findByTypeIgnoreCaseAndIsListAndIsEnum(String type, Boolean isList, Boolean isEnum);
 	Optional<AttributeType> findByTypeIgnoreCase(String type);
 	List<AttributeType> findByIsEnum(Boolean isEnum);
+
+	List<AttributeType> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ConfigRepository.STREAM_FETCH_SIZE))
+	Stream<AttributeType> streamAllByOrderByIdAsc();
 }
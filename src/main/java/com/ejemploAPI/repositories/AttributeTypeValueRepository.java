@@ -1,14 +1,38 @@
 package com.ejemploAPI.repositories;
 
 import com.ejemploAPI.models.AttributeTypeValue;
+import com.ejemploAPI.projections.AttributeTypeValueRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AttributeTypeValueRepository extends JpaRepository<AttributeTypeValue, Long> {
     List<AttributeTypeValue> findByAttributeTypeId(Long attributeTypeId);
     Optional<AttributeTypeValue> findFirstByAttributeTypeIdAndValue(Long attributeTypeId, String value);
+
+    String ROW_QUERY = "SELECT v.id AS id, t.id AS attributeTypeId, v.value AS value, t.isEnum AS isEnum "
+            + "FROM AttributeTypeValue v LEFT JOIN v.attributeType t ";
+
+    @Query(ROW_QUERY + "ORDER BY v.id")
+    List<AttributeTypeValueRow> findAllRows();
+
+    @Query(ROW_QUERY + "WHERE v.id = :id")
+    Optional<AttributeTypeValueRow> findRowById(@Param("id") Long id);
+
+    @Query(ROW_QUERY + "WHERE v.id > :afterId ORDER BY v.id")
+    List<AttributeTypeValueRow> findRowsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ConfigRepository.STREAM_FETCH_SIZE))
+    @Query(ROW_QUERY + "ORDER BY v.id")
+    Stream<AttributeTypeValueRow> streamAllRows();
 }
@@ -0,0 +1,41 @@
+package com.ejemploAPI.repositories;
+
+import com.ejemploAPI.models.Config;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.List;
+
+/* Inserción por lotes de filas Config con JDBC
+   Config usa GenerationType.IDENTITY, lo que impide a Hibernate agrupar los INSERT. Las hojas del JSON
+   (primitivos e items de lista) no necesitan su id durante la importación, así que se insertan aquí
+   en lotes de tamaño configurable. Usa la conexión de la transacción en curso
+ */
+@Repository
+public class ConfigBatchWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO config "
+            + "(default_value, descripcion, attribute_id, parent, application_node, is_custom, path) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ConfigBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertAll(List<Config> configs, int batchSize) {
+        if (configs == null || configs.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, configs, batchSize, (ps, c) -> {
+            ps.setString(1, c.getDefaultValue());
+            ps.setString(2, c.getDescripcion());
+            ps.setObject(3, c.getAttribute() != null ? c.getAttribute().getId() : null, Types.BIGINT);
+            ps.setObject(4, c.getParent() != null ? c.getParent().getId() : null, Types.BIGINT);
+            ps.setString(5, c.getApplicationNode());
+            ps.setObject(6, c.getIsCustom(), Types.BOOLEAN);
+            ps.setString(7, c.getPath() != null ? c.getPath() : Config.childPathOf(c.getParent()));
+        });
+    }
+}
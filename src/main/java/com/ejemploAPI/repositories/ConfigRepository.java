@@ -1,15 +1,115 @@
 package com.ejemploAPI.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.ejemploAPI.models.Config;
+import com.ejemploAPI.projections.ConfigRow;
+import com.ejemploAPI.projections.ConfigTreeRow;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ConfigRepository extends JpaRepository<Config, Long> {
 	List<Config> findByParentIsNull();
 	List<Config> findByParentIdOrderByIdAsc(Long parentId);
 	Optional<Config> findFirstByAttributeIdAndParentIdAndDefaultValue(Long attributeId, Long parentId, String defaultValue);
+	Optional<Config> findFirstByParentIsNullAndAttributeNameOrderByIdAsc(String attributeName);
+	List<Config> findByPathStartingWithOrderByIdAsc(String pathPrefix);
+	Optional<Config> findFirstByParentIdAndAttributeNameOrderByIdAsc(Long parentId, String attributeName);
+
+	// Columnas de ConfigRow: c.attribute.id y c.parent.id se leen de la clave ajena, sin join
+	String ROW_COLUMNS = "SELECT c.id AS id, c.defaultValue AS defaultValue, c.descripcion AS descripcion, "
+			+ "c.attribute.id AS attributeId, c.parent.id AS parentId, "
+			+ "c.applicationNode AS applicationNode, c.isCustom AS isCustom ";
+
+	@Query(ROW_COLUMNS + "FROM Config c ORDER BY c.id")
+	List<ConfigRow> findAllRows();
+
+	@Query(ROW_COLUMNS + "FROM Config c WHERE c.id = :id")
+	Optional<ConfigRow> findRowById(@Param("id") Long id);
+
+	@Query(ROW_COLUMNS + "FROM Config c WHERE c.id IN :ids")
+	List<ConfigRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+	// Página por keyset: los siguientes Config con id mayor que afterId
+	@Query(ROW_COLUMNS + "FROM Config c WHERE c.id > :afterId ORDER BY c.id")
+	List<ConfigRow> findRowsAfter(@Param("afterId") Long afterId, Limit limit);
+
+	// Filas que el driver trae en cada viaje al leer en streaming (en MySQL necesita useCursorFetch=true)
+	String STREAM_FETCH_SIZE = "500";
+
+	// Todas las filas en streaming: se consume dentro de una transacción y hay que cerrarlo
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+	@Query(ROW_COLUMNS + "FROM Config c ORDER BY c.id")
+	Stream<ConfigRow> streamAllRows();
+
+	// Columnas comunes de las consultas de árbol: el Config con su atributo y su tipo
+	String TREE_ROW_COLUMNS = "SELECT c.id AS \"id\", c.parent AS \"parentId\", c.default_value AS \"defaultValue\", "
+			+ "a.name AS \"attributeName\", t.id AS \"attributeTypeId\", t.type AS \"type\", "
+			+ "t.is_list AS \"isList\", t.is_enum AS \"isEnum\" ";
+
+	String TREE_ROW_JOINS = "LEFT JOIN attribute a ON a.id = c.attribute_id "
+			+ "LEFT JOIN attribute_type t ON t.id = a.attribute_type_id ";
+
+	/* Clave de orden en profundidad: los ids de la rama, con ceros a la izquierda hasta las 19 cifras de un BIGINT
+	   y separados por '/'. Ordenando por ella cada nodo va seguido de su subárbol y los hermanos salen por id
+	   El path guardado no sirve para esto: "/10/" queda antes que "/9/" y los hermanos saldrían desordenados
+	   El CAST fija el ancho de la columna en la consulta recursiva (200 niveles); H2 la rellena con espacios,
+	   por eso el RTRIM, y el espacio ordena antes que '/' así que el orden no cambia
+	 */
+	String SORT_KEY_SEGMENT = "LPAD(CONCAT(c.id, ''), 19, '0')";
+
+	String DEPTH_FIRST_STEP = "UNION ALL "
+			+ "SELECT c.id, CONCAT(RTRIM(s.sort_key), '/', " + SORT_KEY_SEGMENT + ") "
+			+ "FROM config c JOIN subtree s ON c.parent = s.id) ";
+
+	String DEPTH_FIRST_ROWS = TREE_ROW_COLUMNS + ", RTRIM(s.sort_key) AS \"sortKey\" "
+			+ "FROM subtree s JOIN config c ON c.id = s.id "
+			+ TREE_ROW_JOINS
+			+ "ORDER BY s.sort_key";
+
+	// Todo el bosque en profundidad (ver SORT_KEY_SEGMENT) y en streaming: se consume dentro de una transacción
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+	@Query(value = "WITH RECURSIVE subtree (id, sort_key) AS ("
+			+ "SELECT c.id, CAST(" + SORT_KEY_SEGMENT + " AS CHAR(4000)) FROM config c WHERE c.parent IS NULL "
+			+ DEPTH_FIRST_STEP
+			+ DEPTH_FIRST_ROWS, nativeQuery = true)
+	Stream<ConfigTreeRow> streamForestRows();
+
+	// Un Config y todos sus descendientes, en el mismo orden y también en streaming
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+	@Query(value = "WITH RECURSIVE subtree (id, sort_key) AS ("
+			+ "SELECT c.id, CAST(" + SORT_KEY_SEGMENT + " AS CHAR(4000)) FROM config c WHERE c.id = :rootId "
+			+ DEPTH_FIRST_STEP
+			+ DEPTH_FIRST_ROWS, nativeQuery = true)
+	Stream<ConfigTreeRow> streamSubtreeRows(@Param("rootId") Long rootId);
+
+	// Ids de todos los descendientes de un nodo, a partir del prefijo path + id + '/'
+	@Query("SELECT c.id FROM Config c WHERE c.path LIKE CONCAT(:descendantsPrefix, '%')")
+	List<Long> findDescendantIds(@Param("descendantsPrefix") String descendantsPrefix);
+
+	@Modifying(flushAutomatically = true)
+	@Query("UPDATE Config c SET c.parent = NULL WHERE c.id IN :ids")
+	int detachParents(@Param("ids") Collection<Long> ids);
+
+	@Modifying(flushAutomatically = true)
+	@Query("DELETE FROM Config c WHERE c.id IN :ids")
+	int deleteByIds(@Param("ids") Collection<Long> ids);
+
+	// Reescribe el path de todos los descendientes cuando un nodo cambia de padre
+	@Modifying(flushAutomatically = true)
+	@Query("UPDATE Config c SET c.path = CONCAT(:newPrefix, SUBSTRING(c.path, :oldPrefixLength + 1)) "
+			+ "WHERE c.path LIKE CONCAT(:oldPrefix, '%')")
+	int movePaths(@Param("oldPrefix") String oldPrefix, @Param("oldPrefixLength") int oldPrefixLength,
+				  @Param("newPrefix") String newPrefix);
 }
@@ -0,0 +1,49 @@
+package com.ejemploAPI.services;
+
+import com.ejemploAPI.models.Attribute;
+import com.ejemploAPI.models.AttributeType;
+import com.ejemploAPI.repositories.AttributeRepository;
+import com.ejemploAPI.repositories.AttributeTypeRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/* Alta de Attribute y AttributeType para la importación en paralelo
+   Cada operación va en su propia transacción: el alta se confirma enseguida y las demás tareas la ven,
+   y si otra tarea ha creado la misma fila a la vez el índice único hace fallar el insert sin estropear
+   la transacción de la tarea. Quien llama captura el DataIntegrityViolationException y vuelve a buscar,
+   también en una transacción nueva para leer lo que ya está confirmado
+ */
+@Service
+public class AttributeRegistry {
+
+    private final AttributeRepository attributeRepository;
+    private final AttributeTypeRepository attributeTypeRepository;
+
+    public AttributeRegistry(AttributeRepository attributeRepository, AttributeTypeRepository attributeTypeRepository) {
+        this.attributeRepository = attributeRepository;
+        this.attributeTypeRepository = attributeTypeRepository;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Attribute createAttribute(Attribute attribute) {
+        return attributeRepository.saveAndFlush(attribute);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public Optional<Attribute> findAttribute(String name) {
+        return attributeRepository.findWithAttributeTypeByName(name);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public AttributeType createAttributeType(AttributeType attributeType) {
+        return attributeTypeRepository.saveAndFlush(attributeType);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public Optional<AttributeType> findAttributeType(String type, Boolean isList, Boolean isEnum) {
+        return attributeTypeRepository.findByTypeAndIsListAndIsEnum(type, isList, isEnum);
+    }
+}
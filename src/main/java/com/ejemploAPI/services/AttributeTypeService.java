@@ -12,6 +12,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.regex.Pattern;
 
 @Service
 public class AttributeTypeService {
@@ -20,9 +21,15 @@ public class AttributeTypeService {
 
     private final AttributeTypeValueRepository attributeTypeValueRepository;
 
-    public AttributeTypeService(AttributeTypeRepository attributeTypeRepository, AttributeTypeValueRepository attributeTypeValueRepository) {
+    private final EnumDictionary enumDictionary;
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}");
+
+    public AttributeTypeService(AttributeTypeRepository attributeTypeRepository, AttributeTypeValueRepository attributeTypeValueRepository,
+                                EnumDictionary enumDictionary) {
         this.attributeTypeRepository = attributeTypeRepository;
         this.attributeTypeValueRepository = attributeTypeValueRepository;
+        this.enumDictionary = enumDictionary;
     }
 
     public AttributeType ensureEnumType(String typeName) {
@@ -41,6 +48,7 @@ public class AttributeTypeService {
     public void addValuesToAttributeType(AttributeType attributeType, List<String> values) {
         if (attributeType == null || values == null || values.isEmpty())
             return;
+        boolean added = false;
         for (String v : values) {
             if (v == null)
                 continue;
@@ -51,8 +59,11 @@ public class AttributeTypeService {
                 atv.setAttributeType(attributeType);
                 atv.setValue(v);
                 attributeTypeValueRepository.save(atv);
+                added = true;
             }
         }
+        if (added)
+            enumDictionary.invalidate();
     }
 
     public List<String> getAllowedValues(AttributeType attributeType) {
@@ -73,26 +84,24 @@ public class AttributeTypeService {
         if (inputValue == null || attrType == null)
             return null;
 
-        String normalizedInput = normalizarTextos(inputValue);
-
-        List<String> allowed = getAllowedValues(attrType);
+        return findClosestAllowedValue(attrType.getId(), inputValue);
+    }
 
-        // Búsqueda exacta pero normalizada (sin acentos y en minúsculas)
-        for (String allowedVal : allowed) {
-            if (normalizarTextos(allowedVal).equals(normalizedInput)) {
-                return allowedVal; // devuelve el valor REAL de BBDD
-            }
-        }
+    public String findClosestAllowedValue(Long attributeTypeId, String inputValue) {
+        if (inputValue == null || attributeTypeId == null)
+            return null;
 
-        return null; // no coincide
+        // Búsqueda exacta pero normalizada (sin acentos y en minúsculas) en el diccionario en memoria
+        // Devuelve el valor REAL de BBDD, o null si no coincide
+        return enumDictionary.findCanonicalValue(attributeTypeId, normalizarTextos(inputValue));
     }
 
     public static String normalizarTextos(String text) {
         if (text == null)
             return null;
         String normalized = java.text.Normalizer.normalize(text, java.text.Normalizer.Form.NFD);
-        return normalized
-                .replaceAll("\\p{M}", "") // elimina acentos
+        return MARCAS_DIACRITICAS.matcher(normalized)
+                .replaceAll("") // elimina acentos
                 .toLowerCase()
                 .trim();
     }
@@ -0,0 +1,316 @@
+package com.ejemploAPI.services;
+
+import com.ejemploAPI.models.AttributeType;
+import com.ejemploAPI.models.Config;
+import com.ejemploAPI.projections.ConfigTreeRow;
+import com.ejemploAPI.repositories.AttributeTypeRepository;
+import com.ejemploAPI.repositories.ConfigRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/* Exportación de la jerarquía Config a JSON
+   Lee el bosque completo (o el subárbol de un nodo) con una única consulta recursiva que devuelve las filas en
+   profundidad, en streaming, y escribe el JSON según llegan: en memoria solo está la rama abierta, no la tabla
+ */
+@Service
+@Transactional(readOnly = true)
+public class ConfigExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfigExportService.class);
+
+    private final ConfigRepository configRepository;
+    private final AttributeTypeRepository attributeTypeRepository;
+    private final AttributeTypeService attributeTypeService;
+    private final Map<ConfigFormat, JsonFactory> factories = new EnumMap<>(ConfigFormat.class);
+
+    public ConfigExportService(ConfigRepository configRepository, AttributeTypeRepository attributeTypeRepository,
+                               AttributeTypeService attributeTypeService) {
+        this.configRepository = configRepository;
+        this.attributeTypeRepository = attributeTypeRepository;
+        this.attributeTypeService = attributeTypeService;
+        for (ConfigFormat format : ConfigFormat.values()) {
+            factories.put(format, format.newObjectMapper().getFactory());
+        }
+    }
+
+    /* Exportación completa a JSON
+       Recorre todos los Config raíz (parent = null) y reconstruye un objeto JSON
+       Se escribe con el mismo JsonGenerator que la exportación en streaming
+    */
+    public String exportToJson() {
+        log.debug("Iniciando exportación a JSON...");
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int totalNodesExported = writeJson(out, true);
+            String json = out.toString(StandardCharsets.UTF_8);
+            log.debug("Exportación finalizada. Nodos exportados: {}. Longitud del JSON: {} caracteres",
+                    totalNodesExported, json.length());
+            return json;
+        } catch (Exception e) {
+            log.error("Error generando el JSON", e);
+            return "{}";
+        }
+    }
+
+    /* Exportación en streaming
+       Escribe el JSON directamente en el OutputStream mientras recorre el árbol, sin construir
+       el Map intermedio ni el String. El OutputStream no se cierra, es responsabilidad de quien llama
+       Devuelve el número de nodos exportados
+     */
+    public int writeJson(OutputStream out, boolean pretty) throws IOException {
+        return writeJson(out, pretty, ConfigFormat.JSON);
+    }
+
+    // Igual que writeJson pero en el formato indicado; pretty solo se aplica a JSON
+    public int writeJson(OutputStream out, boolean pretty, ConfigFormat format) throws IOException {
+        return writeTree(configRepository.streamForestRows(), out, pretty, false, format);
+    }
+
+    /* Exportación de una sola rama
+       Escribe { "nombre": valor } del Config indicado con las mismas reglas de conversión que la exportación completa,
+       pero solo consulta y recorre su subárbol
+     */
+    public int writeSubtreeJson(Long rootId, OutputStream out, boolean pretty) throws IOException {
+        if (!configRepository.existsById(rootId)) {
+            throw new RuntimeException("No se encontró Config con id = " + rootId);
+        }
+        log.debug("Exportando subárbol del Config id={}", rootId);
+        return writeTree(configRepository.streamSubtreeRows(rootId), out, pretty, true, ConfigFormat.JSON);
+    }
+
+    /* Resuelve una ruta de nombres de atributo separados por puntos (p.ej. "dirección.PruebaHijo")
+       empezando por los nodos raíz. Si hay varios hermanos con el mismo nombre se toma el de menor id
+     */
+    public Optional<Long> resolvePath(String path) {
+        if (path == null || path.isBlank()) return Optional.empty();
+
+        String[] segments = path.split("\\.");
+        Optional<Config> current = configRepository.findFirstByParentIsNullAndAttributeNameOrderByIdAsc(segments[0]);
+        for (int i = 1; i < segments.length && current.isPresent(); i++) {
+            current = configRepository.findFirstByParentIdAndAttributeNameOrderByIdAsc(current.get().getId(), segments[i]);
+        }
+        log.debug("Ruta '{}' resuelta a {}", path, current.map(Config::getId).orElse(null));
+        return current.map(Config::getId);
+    }
+
+    public boolean exists(Long id) {
+        return configRepository.existsById(id);
+    }
+
+    private int writeTree(Stream<ConfigTreeRow> rows, OutputStream out, boolean pretty, boolean groupListItems,
+                          ConfigFormat format) throws IOException {
+        ExportState state = new ExportState();
+        try (rows; JsonGenerator gen = createGenerator(out, pretty, format)) {
+            RowCursor cursor = new RowCursor(rows.iterator());
+            gen.writeStartObject();
+            writeFields(gen, cursor, null, state, groupListItems);
+            gen.writeEndObject();
+            log.debug("Filas leídas: {}", cursor.read());
+        }
+        return state.totalNodesExported.get();
+    }
+
+    private JsonGenerator createGenerator(OutputStream out, boolean pretty, ConfigFormat format) throws IOException {
+        JsonGenerator gen = factories.get(format).createGenerator(out);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (pretty && !format.isBinary()) gen.useDefaultPrettyPrinter();
+        return gen;
+    }
+
+    /* Escribe los hijos de parentId (o, con parentId null, todas las filas de primer nivel) como campos de un objeto
+       JSON. Cada hijo consume su subárbol del cursor, así que al volver la siguiente fila es otro hijo o ya no lo es
+       Si un nombre se repite se queda el primero y los siguientes se descartan con su subárbol: no se puede
+       escribir un campo dos veces y en streaming no se sabe cuál será el último
+     */
+    private void writeFields(JsonGenerator gen, RowCursor cursor, Long parentId, ExportState state,
+                             boolean groupListItems) throws IOException {
+        Set<String> names = new HashSet<>();
+        while (parentId == null ? cursor.hasNext() : cursor.nextIsChildOf(parentId)) {
+            ConfigTreeRow row = cursor.next();
+            if (row.getAttributeName() == null) {
+                log.warn("Nodo sin atributo asociado, id={}", row.getId());
+                cursor.skipDescendants(row);
+                continue;
+            }
+            String name = row.getAttributeName();
+            // Manejo de listas: nombres con _item_ se agrupan por padre
+            if (groupListItems && name.contains("_item_")) {
+                name = name.substring(0, name.lastIndexOf("_item_"));
+            }
+            if (!names.add(name)) {
+                log.debug("Campo '{}' repetido (id={}), se descarta", name, row.getId());
+                cursor.skipDescendants(row);
+                continue;
+            }
+
+            if (!groupListItems) log.debug("[ROOT] Exportando nodo raíz '{}'", name);
+            gen.writeFieldName(name);
+            writeJsonValue(gen, row, cursor, state);
+        }
+    }
+
+    /* Maneja listas, enums, tipos primitivos y nodos hijos
+       Convierte los valores de string a Boolean, Numeric o enum según corresponda
+       Agrupa los items de lista usando el sufijo _item_
+     */
+    private void writeJsonValue(JsonGenerator gen, ConfigTreeRow config, RowCursor cursor, ExportState state) throws IOException {
+        state.totalNodesExported.incrementAndGet();
+        String attrName = config.getAttributeName() != null ? config.getAttributeName() : "(sin atributo)";
+        Long id = config.getId();
+
+        // Manejo de listas: solo cuentan los hijos directos, lo que cuelgue de ellos se descarta
+        if (config.getAttributeTypeId() != null && Boolean.TRUE.equals(config.getIsList())) {
+            int items = 0;
+            gen.writeStartArray();
+            while (cursor.nextIsChildOf(id)) {
+                ConfigTreeRow child = cursor.next();
+                cursor.skipDescendants(child);
+                items++;
+                String childValue = child.getDefaultValue();
+                if (childValue == null) continue;
+
+                // Enum list
+                if (Boolean.TRUE.equals(config.getIsEnum())) {
+                    Long baseEnumTypeId = state.baseEnumTypeId(config, attributeTypeRepository);
+                    String allowedValue = attributeTypeService.findClosestAllowedValue(baseEnumTypeId, childValue);
+                    if (allowedValue != null) gen.writeString(allowedValue);
+                } else {
+                    // Boolean, Numeric o String
+                    writeScalar(gen, convertPrimitive(config.getType(), childValue));
+                }
+            }
+            gen.writeEndArray();
+            log.debug("[EXPORT-LIST] '{}' (id={}) contiene {} elementos", attrName, id, items);
+            return;
+        }
+
+        // Valor primitivo: en profundidad, si tiene hijos el primero es la fila siguiente
+        if (!cursor.nextIsChildOf(id)) {
+            String value = config.getDefaultValue();
+            if (value == null) {
+                gen.writeNull();
+                return;
+            }
+
+            if (config.getAttributeTypeId() != null && Boolean.TRUE.equals(config.getIsEnum())) {
+                String allowedValue = attributeTypeService.findClosestAllowedValue(config.getAttributeTypeId(), value);
+                if (allowedValue != null) {
+                    gen.writeString(allowedValue);
+                    return;
+                }
+            }
+
+            writeScalar(gen, config.getAttributeTypeId() != null ? convertPrimitive(config.getType(), value) : value);
+            return;
+        }
+
+        // Nodos
+        gen.writeStartObject();
+        writeFields(gen, cursor, id, state, true);
+        gen.writeEndObject();
+    }
+
+    private void writeScalar(JsonGenerator gen, Object value) throws IOException {
+        if (value == null) gen.writeNull();
+        else if (value instanceof Boolean b) gen.writeBoolean(b);
+        else if (value instanceof Integer i) gen.writeNumber(i);
+        else if (value instanceof Long l) gen.writeNumber(l);
+        else if (value instanceof Double d) gen.writeNumber(d);
+        else gen.writeString(value.toString());
+    }
+
+    private Object convertPrimitive(String type, String value) {
+        switch (type != null ? type : "") {
+            case "BOOLEAN":
+                return Boolean.parseBoolean(value);
+            case "NUMERIC":
+                return parseNumeros(value);
+            default:
+                return value;
+        }
+    }
+
+    // Parseo de números
+    private Object parseNumeros(String value) {
+        if (value == null) return null;
+        try {
+            if (value.matches("^-?\\d+$")) {
+                long longValue = Long.parseLong(value);
+                if (longValue >= Integer.MIN_VALUE && longValue <= Integer.MAX_VALUE) return (int) longValue;
+                return longValue;
+            }
+            return Double.parseDouble(value);
+        } catch (Exception e) {
+            return value;
+        }
+    }
+
+    // Filas de la consulta en profundidad con una de anticipación, para saber si la siguiente es hija de un nodo
+    static class RowCursor {
+
+        private final Iterator<ConfigTreeRow> rows;
+        private ConfigTreeRow next;
+        private int read;
+
+        RowCursor(Iterator<ConfigTreeRow> rows) {
+            this.rows = rows;
+            advance();
+        }
+
+        boolean hasNext() {
+            return next != null;
+        }
+
+        boolean nextIsChildOf(Long id) {
+            return next != null && id.equals(next.getParentId());
+        }
+
+        ConfigTreeRow next() {
+            ConfigTreeRow current = next;
+            advance();
+            return current;
+        }
+
+        // Descarta las filas del subárbol de row, que vienen seguidas justo detrás de ella
+        void skipDescendants(ConfigTreeRow row) {
+            String prefix = row.getSortKey() + "/";
+            while (next != null && next.getSortKey().startsWith(prefix)) advance();
+        }
+
+        int read() {
+            return read;
+        }
+
+        private void advance() {
+            next = rows.hasNext() ? rows.next() : null;
+            if (next != null) read++;
+        }
+    }
+
+    // Estado de una exportación: contador de nodos y tipo base de cada enum de lista ya resuelto
+    static class ExportState {
+
+        private final AtomicInteger totalNodesExported = new AtomicInteger(0);
+        private final Map<String, Long> baseEnumTypeIds = new HashMap<>();
+
+        // Los valores de un enum de lista cuelgan del tipo base (no-list) con el mismo nombre
+        Long baseEnumTypeId(ConfigTreeRow listConfig, AttributeTypeRepository attributeTypeRepository) {
+            return baseEnumTypeIds.computeIfAbsent(String.valueOf(listConfig.getType()), type -> attributeTypeRepository
+                    .findByTypeAndIsListAndIsEnum(listConfig.getType(), false, true)
+                    .map(AttributeType::getId)
+                    .orElse(listConfig.getAttributeTypeId()));
+        }
+    }
+}
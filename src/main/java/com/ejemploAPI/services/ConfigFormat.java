@@ -0,0 +1,96 @@
+package com.ejemploAPI.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/* Formatos de intercambio del árbol de Config
+   JSON es el de siempre. Smile y CBOR son representaciones binarias del mismo modelo de Jackson: se leen y
+   escriben con el mismo JsonParser/JsonGenerator, así que conservan los mismos tipos (enteros, decimales,
+   booleanos, texto) y la importación y la exportación no cambian. Pensados para sincronizar servicios sin
+   volver a parsear texto
+ */
+public enum ConfigFormat {
+
+    JSON(MediaType.APPLICATION_JSON),
+    SMILE(MediaType.parseMediaType(ConfigFormat.SMILE_VALUE)),
+    CBOR(MediaType.APPLICATION_CBOR);
+
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+    private final MediaType mediaType;
+
+    ConfigFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public boolean isBinary() {
+        return this != JSON;
+    }
+
+    public ObjectMapper newObjectMapper() {
+        return switch (this) {
+            case JSON -> new ObjectMapper();
+            case SMILE -> new ObjectMapper(new SmileFactory());
+            case CBOR -> new ObjectMapper(new CBORFactory());
+        };
+    }
+
+    // Formato del cuerpo de una petición; JSON si no hay Content-Type o no es uno de los binarios
+    public static ConfigFormat fromContentType(String contentType) {
+        if (contentType == null || contentType.isBlank()) return JSON;
+        try {
+            ConfigFormat format = of(MediaType.parseMediaType(contentType));
+            return format != null ? format : JSON;
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+    }
+
+    /* Formato de la respuesta según Accept: los tipos se prueban de mayor a menor q (a igual q, en el orden de la
+       cabecera) y los de q=0 no se aceptan. Un comodín (todo, o application con cualquier subtipo) vale por el
+       primer formato que incluya y no esté rechazado, empezando por JSON. JSON si no hay ninguno
+     */
+    public static ConfigFormat fromAccept(String accept) {
+        if (accept == null || accept.isBlank()) return JSON;
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        Set<ConfigFormat> rejected = EnumSet.noneOf(ConfigFormat.class);
+        for (MediaType mediaType : mediaTypes) {
+            ConfigFormat format = of(mediaType);
+            if (format != null && mediaType.getQualityValue() == 0) rejected.add(format);
+        }
+        // sort es estable: a igual q se respeta el orden de la cabecera
+        mediaTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() == 0) continue;
+            for (ConfigFormat format : values()) {
+                if (!rejected.contains(format) && mediaType.includes(format.mediaType)) return format;
+            }
+        }
+        return JSON;
+    }
+
+    private static ConfigFormat of(MediaType mediaType) {
+        for (ConfigFormat format : values()) {
+            if (format.mediaType.equalsTypeAndSubtype(mediaType)) return format;
+        }
+        return null;
+    }
+}
@@ -4,26 +4,41 @@ import com.ejemploAPI.config.exceptions.DuplicateKeyException;
 import com.ejemploAPI.config.exceptions.InvalidEnumValueException;
 import com.ejemploAPI.config.exceptions.InvalidJsonFormatException;
 import com.ejemploAPI.dtos.ConfigDTO;
+import com.ejemploAPI.dtos.ImportResultDTO;
 import com.ejemploAPI.mappers.ConfigMapper;
 import com.ejemploAPI.models.Attribute;
 import com.ejemploAPI.models.AttributeType;
 import com.ejemploAPI.models.Config;
+import com.ejemploAPI.projections.ConfigRow;
 import com.ejemploAPI.repositories.AttributeRepository;
 import com.ejemploAPI.repositories.AttributeTypeRepository;
+import com.ejemploAPI.repositories.ConfigBatchWriter;
 import com.ejemploAPI.repositories.ConfigRepository;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 @Service
 @Transactional
@@ -33,24 +48,70 @@ public class ConfigService {
     private final AttributeRepository attributeRepository;
     private final AttributeTypeRepository attributeTypeRepository;
     private final AttributeTypeService attributeTypeService;
+    private final ConfigBatchWriter configBatchWriter;
+    private final EnumDictionary enumDictionary;
+    private final AttributeRegistry attributeRegistry;
+    private final LookupCache lookupCache;
+    private final ExportSnapshotCache exportSnapshotCache;
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncTaskExecutor configImportExecutor;
     private final ObjectMapper objectMapper;
+    private final Map<ConfigFormat, ObjectMapper> readers = new EnumMap<>(ConfigFormat.class);
+    // Inserción por lotes de las hojas durante la importación
+    private final boolean batchEnabled;
+    private final int batchSize;
+    // Importación en paralelo: número de claves a partir del cual los hijos de un Map se reparten entre tareas
+    private final int parallelSplitThreshold;
+    // Importación en streaming: cada cuántos nodos se vacía el contexto de persistencia
+    private final int streamClearInterval;
+    private final EntityManager entityManager;
+    // Máximo de ids por sentencia en los borrados de subárboles
+    private static final int DELETE_CHUNK_SIZE = 1000;
+    // Tamaño de los bloques del IN al cargar los atributos de una importación
+    private static final int ATTRIBUTE_LOOKUP_CHUNK_SIZE = 1000;
     private static final Logger log = LoggerFactory.getLogger(ConfigService.class);
 
     public ConfigService(ConfigRepository configRepository, AttributeRepository attributeRepository,
-                         AttributeTypeRepository attributeTypeRepository, AttributeTypeService attributeTypeService) {
+                         AttributeTypeRepository attributeTypeRepository, AttributeTypeService attributeTypeService,
+                         ConfigBatchWriter configBatchWriter, EnumDictionary enumDictionary,
+                         AttributeRegistry attributeRegistry, LookupCache lookupCache,
+                         ExportSnapshotCache exportSnapshotCache,
+                         PlatformTransactionManager transactionManager,
+                         @Qualifier("configImportExecutor") AsyncTaskExecutor configImportExecutor,
+                         @Value("${config.import.batch.enabled:true}") boolean batchEnabled,
+                         @Value("${config.import.batch.size:500}") int batchSize,
+                         @Value("${config.import.parallel.split-threshold:1000}") int parallelSplitThreshold,
+                         @Value("${config.import.stream.clear-interval:1000}") int streamClearInterval,
+                         EntityManager entityManager) {
         this.configRepository = configRepository;
         this.attributeRepository = attributeRepository;
         this.attributeTypeRepository = attributeTypeRepository;
         this.attributeTypeService = attributeTypeService;
-        this.objectMapper = new ObjectMapper();
-        // Detecta claves duplicadas en el JSON y lanza excepción si las hay
-        this.objectMapper.enable(JsonParser.Feature.STRICT_DUPLICATE_DETECTION);
+        this.configBatchWriter = configBatchWriter;
+        this.enumDictionary = enumDictionary;
+        this.attributeRegistry = attributeRegistry;
+        this.lookupCache = lookupCache;
+        this.exportSnapshotCache = exportSnapshotCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.configImportExecutor = configImportExecutor;
+        this.batchEnabled = batchEnabled;
+        this.batchSize = batchSize;
+        this.parallelSplitThreshold = parallelSplitThreshold;
+        this.streamClearInterval = streamClearInterval;
+        this.entityManager = entityManager;
+        // Un ObjectMapper por formato de entrada. Todos detectan claves duplicadas y lanzan excepción si las hay
+        for (ConfigFormat format : ConfigFormat.values()) {
+            ObjectMapper mapper = format.newObjectMapper();
+            mapper.enable(JsonParser.Feature.STRICT_DUPLICATE_DETECTION);
+            readers.put(format, mapper);
+        }
+        this.objectMapper = readers.get(ConfigFormat.JSON);
     }
 
     // Listar todos los Config
     public List<ConfigDTO> findAll() {
         log.debug("Obteniendo todos los Config");
-        List<ConfigDTO> list = configRepository.findAll().stream()
+        List<ConfigDTO> list = configRepository.findAllRows().stream()
                 .map(ConfigMapper::toDTO)
                 .toList();
         log.debug("Cantidad de Config encontrados: {}", list.size());
@@ -67,9 +128,20 @@ public class ConfigService {
                 });
     }
 
+    // Lectura por id a través de la caché de DTOs
     public ConfigDTO getByIdDTO(Long id) {
-        Config config = findById(id);
-        return ConfigMapper.toDTO(config);
+        ConfigDTO dto = lookupCache.findConfig(id);
+        if (dto == null) {
+            log.error("No se encontró Config con id = {}", id);
+            throw new RuntimeException("No se encontró Config con id = " + id);
+        }
+        return dto;
+    }
+
+    // Referencia al Attribute sin cargarlo: su existencia se comprueba en la caché
+    private Optional<Attribute> attributeReference(Long attributeId) {
+        if (lookupCache.findAttribute(attributeId) == null) return Optional.empty();
+        return Optional.of(attributeRepository.getReferenceById(attributeId));
     }
 
     // Crear Config
@@ -78,7 +150,7 @@ public class ConfigService {
 
         Attribute attribute = null;
         if (dto.getAttributeId() != null) {
-            attribute = attributeRepository.findById(dto.getAttributeId())
+            attribute = attributeReference(dto.getAttributeId())
                     .orElseThrow(() -> new RuntimeException("Attribute con id " + dto.getAttributeId() + " no existe"));
         }
 
@@ -89,6 +161,7 @@ public class ConfigService {
         }
 
         Config saved = configRepository.save(ConfigMapper.toEntity(dto, attribute, parent));
+        exportSnapshotCache.invalidate();
         log.debug("Config creado correctamente con id = {}", saved.getId());
         return ConfigMapper.toDTO(saved);
     }
@@ -100,7 +173,7 @@ public class ConfigService {
 
         Attribute attribute = null;
         if (dto.getAttributeId() != null) {
-            attribute = attributeRepository.findById(dto.getAttributeId()).orElse(null);
+            attribute = attributeReference(dto.getAttributeId()).orElse(null);
             if (attribute == null) log.warn("Attribute con id {} no existe, no se actualiza este campo", dto.getAttributeId());
         }
 
@@ -110,164 +183,716 @@ public class ConfigService {
             if (parent == null) log.warn("Config padre con id {} no existe, no se actualiza este campo", dto.getParentId());
         }
 
+        // Si cambia de padre hay que mover su path y el de todos sus descendientes
+        String oldDescendantsPrefix = config.descendantsPathPrefix();
+        String newPath = Config.childPathOf(parent);
+        if (parent != null && (parent.getId().equals(id) || newPath.contains("/" + id + "/"))) {
+            log.error("No se puede mover Config con id = {} debajo de su descendiente {}", id, parent.getId());
+            throw new RuntimeException("Config padre con id " + parent.getId() + " es descendiente de " + id);
+        }
+
         ConfigMapper.updateEntity(config, dto, attribute, parent);
+        boolean moved = !newPath.equals(config.getPath());
+        config.setPath(newPath);
         Config saved = configRepository.save(config);
+        lookupCache.evictConfig(id);
+        exportSnapshotCache.invalidate();
+        if (moved) {
+            int movidos = configRepository.movePaths(oldDescendantsPrefix, oldDescendantsPrefix.length(), saved.descendantsPathPrefix());
+            log.debug("Config con id = {} movido a path {}. Descendientes actualizados: {}", id, newPath, movidos);
+        }
         log.debug("Config actualizado correctamente con id = {}", saved.getId());
         return ConfigMapper.toDTO(saved);
     }
 
-    // Eliminar Config
+    // Ancestros de un Config, de la raíz a su padre, leídos de su path con una sola consulta
+    public List<ConfigDTO> findAncestors(Long id) {
+        Config config = findById(id);
+        List<Long> ancestorIds = Arrays.stream(Objects.toString(config.getPath(), "").split("/"))
+                .filter(segment -> !segment.isEmpty())
+                .map(Long::valueOf)
+                .toList();
+        Map<Long, ConfigRow> byId = new HashMap<>();
+        configRepository.findRowsByIdIn(ancestorIds).forEach(row -> byId.put(row.getId(), row));
+        return ancestorIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(ConfigMapper::toDTO)
+                .toList();
+    }
+
+    // Eliminar Config junto con todo su subárbol
     public void delete(Long id) {
         Config config = findById(id);
         try {
-            configRepository.delete(config);
-            log.debug("Config eliminado correctamente con id = {}", id);
+            int eliminados = deleteSubtree(config, true);
+            exportSnapshotCache.invalidate();
+            log.debug("Config eliminado correctamente con id = {} ({} nodos con sus descendientes)", id, eliminados);
         } catch (DataIntegrityViolationException e) {
             log.error("No se puede eliminar Config con id = {} por integridad referencial", id);
             throw new RuntimeException("No se puede eliminar Config con id " + id + " porque tiene elementos asociados");
         }
     }
 
+    /* Los modos de importación (streaming, incremental y en paralelo) son excluyentes: cada uno es un recorrido
+       distinto y ninguno hace lo que piden los otros. Pedir más de uno es un error (400) en lugar de ejecutar
+       solo uno de ellos sin avisar
+     */
+    public static void checkImportModes(boolean streaming, boolean incremental, boolean parallel) {
+        List<String> modes = new ArrayList<>();
+        if (streaming) modes.add("streaming");
+        if (incremental) modes.add("incremental");
+        if (parallel) modes.add("parallel");
+        if (modes.size() > 1) {
+            throw new InvalidJsonFormatException("Los modos de importación " + String.join(", ", modes)
+                    + " no se pueden combinar: elige solo uno");
+        }
+    }
 
-    public void importJson(String rawJson) {
-        AtomicInteger nodosProcesados = new AtomicInteger(0);
-        AtomicInteger nodosCreados = new AtomicInteger(0);
-        AtomicInteger nodosEliminados = new AtomicInteger(0);
-        long startTime = System.currentTimeMillis();
+    public ImportResultDTO importJson(String rawJson) {
+        return importJson(rawJson, new ImportContext());
+    }
 
-        log.debug("Inicio de importación JSON. Longitud del string recibido: {}", rawJson.length());
+    /* Lee el documento completo en el formato indicado
+       Smile y CBOR dan los mismos tipos de nodo que el JSON (enteros, decimales, booleanos, texto), así que
+       la inferencia de tipos y enums no cambia con el formato
+     */
+    public JsonNode readTree(InputStream body, ConfigFormat format) {
         try {
-            // Usar JsonNode para detectar duplicados
-            JsonNode rootNode = objectMapper.readTree(rawJson); // objectMapper con STRICT_DUPLICATE_DETECTION
-            Map<String, Object> jsonMap = objectMapper.convertValue(rootNode, Map.class);
-            // Detectar si cada nodo necesita un AttributeType
-            preScanAndRegisterTypes(jsonMap);
-
-            // Procesar cada nodo recursivamente
-            for (Map.Entry<String, Object> entry : jsonMap.entrySet()) {
-                processJsonNode(entry.getKey(), entry.getValue(), null, nodosProcesados, nodosCreados, nodosEliminados, 0);
-            }
-
-            long elapsedTime = System.currentTimeMillis() - startTime;
-            log.debug("Importación JSON finalizada en {} ms. Procesados={}, Creados={}, Eliminados={}",
-                    elapsedTime, nodosProcesados.get(), nodosCreados.get(), nodosEliminados.get());
+            return readers.get(format).readTree(body);
+        } catch (JsonParseException e) {
+            throw translateParseException(e);
+        } catch (IOException e) {
+            throw new InvalidJsonFormatException("JSON inválido: error leyendo el contenido " + e.getMessage(), e);
+        }
+    }
 
+    private JsonNode readTree(String rawJson) {
+        try {
+            return objectMapper.readTree(rawJson);
         } catch (JsonParseException e) {
-            String msg = e.getOriginalMessage();
-            if (msg != null && msg.contains("Duplicate field")) {
-                throw new DuplicateKeyException("JSON inválido: clave duplicada " + msg);
-            } else {
-                throw new InvalidJsonFormatException("JSON inválido: error de sintaxis " + msg, e);
-            }
-        }  catch (JsonProcessingException e) {
+            throw translateParseException(e);
+        } catch (JsonProcessingException e) {
             throw new RuntimeException(e);
         }
     }
 
-    /* Métodos para inferir enums
-    Busca si un valor o lista coincide con algún AttributeType marcado como enum
-    Esto permite que si tu JSON tiene "color": "ROJO", se asocie automáticamente al AttributeType Color si existe
-    */
-    private AttributeType findEnumTypeMatchingValue(String value) {
-        if (value == null) return null;
-        List<AttributeType> enumTypes = attributeTypeRepository.findByIsEnum(true);
-        if (enumTypes == null || enumTypes.isEmpty()) return null;
+    // Con el ImportContext de quien llama, que puede consultar los contadores mientras dura la importación
+    public ImportResultDTO importJson(String rawJson, ImportContext ctx) {
+        log.debug("Inicio de importación JSON. Longitud del string recibido: {}", rawJson.length());
+        return importJson(readTree(rawJson), ctx);
+    }
 
-        for (AttributeType at : enumTypes) {
-            if (attributeTypeService.findClosestAllowedValue(at, value) != null) {
-                return at;
+    // Con el documento ya leído (JSON, Smile o CBOR, ver readTree)
+    public ImportResultDTO importJson(JsonNode rootNode, ImportContext ctx) {
+        Map<String, Object> jsonMap = objectMapper.convertValue(rootNode, Map.class);
+        loadAttributeCache(ctx, collectAttributeNames(jsonMap));
+
+        // Procesar cada nodo recursivamente: en una sola pasada se resuelve su atributo y se guarda
+        for (Map.Entry<String, Object> entry : jsonMap.entrySet()) {
+            processJsonNode(entry.getKey(), entry.getValue(), null, ctx, 0);
+        }
+
+        return finishImport(ctx);
+    }
+
+    /* Importación en paralelo
+       Las claves raíz del JSON son subárboles independientes: cada una se importa en una tarea del configImportExecutor
+       con su propia transacción, contexto de persistencia, caché de atributos y lote de inserciones.
+       Un Map con parallelSplitThreshold claves o más se guarda antes y sus hijos se reparten a su vez entre tareas.
+       Las listas van enteras en una tarea para que sus items conserven el orden de id.
+       No es atómica: cada tarea confirma su subárbol y, si una falla, lo de las demás queda guardado.
+       En la exportación las claves de un Map pueden salir en otro orden
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImportResultDTO importJsonParallel(String rawJson) {
+        return importJsonParallel(rawJson, new ImportContext());
+    }
+
+    // Con el ImportContext de quien llama, que puede consultar los contadores mientras dura la importación
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImportResultDTO importJsonParallel(String rawJson, ImportContext ctx) {
+        log.debug("Inicio de importación JSON en paralelo. Longitud del string recibido: {}", rawJson.length());
+        return importJsonParallel(readTree(rawJson), ctx);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImportResultDTO importJsonParallel(JsonNode rootNode, ImportContext ctx) {
+        Map<String, Object> jsonMap = objectMapper.convertValue(rootNode, Map.class);
+
+        List<Future<?>> tasks = new ArrayList<>();
+        RuntimeException failure = null;
+        try {
+            for (Map.Entry<String, Object> entry : jsonMap.entrySet()) {
+                submitSubtree(entry.getKey(), entry.getValue(), null, ctx, 0, tasks);
             }
+        } catch (RuntimeException e) {
+            failure = e;
         }
-        return null;
+        // Aunque falle el reparto se espera a las tareas ya lanzadas
+        RuntimeException taskFailure = awaitAll(tasks);
+        // Cada tarea confirma su transacción, así que aunque alguna falle la exportación ya ha cambiado
+        exportSnapshotCache.invalidate();
+        if (failure == null) failure = taskFailure;
+        if (failure != null) throw failure;
+
+        ImportResultDTO result = ctx.toResult();
+        log.debug("Importación JSON en paralelo finalizada en {} ms con {} tareas. Procesados={}, Creados={}, Eliminados={}",
+                result.getTiempoMs(), tasks.size(), result.getNodosProcesados(), result.getNodosCreados(),
+                result.getNodosEliminados());
+        return result;
     }
 
-    private AttributeType findEnumTypeMatchingList(List<?> list) {
-        if (list == null || list.isEmpty()) return null;
-        List<AttributeType> enumTypes = attributeTypeRepository.findByIsEnum(true);
-        if (enumTypes == null || enumTypes.isEmpty()) return null;
-
-        for (AttributeType at : enumTypes) {
-            boolean allMatch = true;
-            for (Object item : list) {
-                if (item == null) continue;
-                if (attributeTypeService.findClosestAllowedValue(at, item.toString()) == null) {
-                    allMatch = false;
-                    break;
+    private void submitSubtree(String name, Object value, Long parentId, ImportContext ctx, int level,
+                               List<Future<?>> tasks) {
+        if (value instanceof Map && ((Map<?, ?>) value).size() >= parallelSplitThreshold) {
+            // El contenedor se confirma en su propia transacción para que las tareas de los hijos lo vean
+            Long containerId = transactionTemplate.execute(status -> {
+                ImportContext taskCtx = ctx.fork();
+                loadAttributeCache(taskCtx, List.of(name));
+                taskCtx.getNodosProcesados().incrementAndGet();
+                Attribute attr = resolveAttribute(name, value, taskCtx);
+                return saveContainerConfig(attr, findParent(parentId), taskCtx).getId();
+            });
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                submitSubtree((String) entry.getKey(), entry.getValue(), containerId, ctx, level + 1, tasks);
+            }
+            return;
+        }
+
+        tasks.add(configImportExecutor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            ImportContext taskCtx = ctx.fork();
+            Set<String> names = new HashSet<>();
+            collectAttributeNames(name, value, names);
+            loadAttributeCache(taskCtx, names);
+
+            processJsonNode(name, value, findParent(parentId), taskCtx, level);
+            flushAttributes(taskCtx);
+            flushPendingInserts(taskCtx);
+        })));
+    }
+
+    // Padre de un subárbol de la importación en paralelo, confirmado en otra transacción; una consulta por tarea
+    private Config findParent(Long parentId) {
+        return parentId != null ? configRepository.findById(parentId).orElse(null) : null;
+    }
+
+    // Espera a todas las tareas y devuelve el primer error, si lo hay
+    private RuntimeException awaitAll(List<Future<?>> tasks) {
+        RuntimeException failure = null;
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                log.warn("Error en una tarea de la importación en paralelo: {}", e.getCause().getMessage());
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException re ? re : new RuntimeException(e.getCause());
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (failure == null) failure = new IllegalStateException("Importación en paralelo interrumpida", e);
             }
-            if (allMatch) return at;
         }
-        return null;
+        return failure;
     }
 
-    /*  Métodos del pre Scan
-        Recorre todo el JSON antes de persistir, y asegura que cada atributo tenga un AttributeType
-    */
+    /* Importación incremental
+       En lugar de borrar y volver a crear los hijos de cada Map o lista, compara el JSON con el subárbol guardado:
+       Map => los hijos se emparejan por atributo
+       Lista => los items se emparejan por posición
+       Solo se insertan los nodos nuevos, se actualizan los valores que cambian y se borran los que ya no están.
+       Detrás de un nodo insertado los hermanos se vuelven a crear para que el orden de id siga al del JSON (SiblingOrder)
+       La inferencia de tipos y enums es la misma que en la importación normal
+     */
+    public ImportResultDTO importJsonIncremental(String rawJson) {
+        return importJsonIncremental(rawJson, new ImportContext());
+    }
+
+    // Con el ImportContext de quien llama, que puede consultar los contadores mientras dura la importación
+    public ImportResultDTO importJsonIncremental(String rawJson, ImportContext ctx) {
+        log.debug("Inicio de importación JSON incremental. Longitud del string recibido: {}", rawJson.length());
+        return importJsonIncremental(readTree(rawJson), ctx);
+    }
+
+    public ImportResultDTO importJsonIncremental(JsonNode rootNode, ImportContext ctx) {
+        Map<String, Object> jsonMap = objectMapper.convertValue(rootNode, Map.class);
+        loadAttributeCache(ctx, collectAttributeNames(jsonMap));
+
+        // Como en la importación normal, los nodos raíz que no vienen en el JSON se conservan
+        Map<Long, Config> existingRoots = new HashMap<>();
+        for (Config root : configRepository.findByParentIsNull()) {
+            if (root.getAttribute() != null) existingRoots.putIfAbsent(root.getAttribute().getId(), root);
+        }
 
-    private void preScanAndRegisterTypes(Map<String, Object> jsonMap) {
-        if (jsonMap == null) return;
         for (Map.Entry<String, Object> entry : jsonMap.entrySet()) {
-            preScanNode(entry.getKey(), entry.getValue());
+            Attribute attr = resolveAttribute(entry.getKey(), entry.getValue(), ctx);
+            Config existing = existingRoots.get(attr.getId());
+            ExistingSubtree subtree = existing != null ? loadExistingSubtree(existing) : ExistingSubtree.EMPTY;
+            syncJsonNode(entry.getKey(), entry.getValue(), attr, null, existing, subtree, ctx, 0);
+        }
+
+        return finishImport(ctx);
+    }
+
+    // Descendientes de un nodo raíz agrupados por padre, cargados con una sola consulta por rango de path
+    private ExistingSubtree loadExistingSubtree(Config root) {
+        Map<Long, List<Config>> childrenByParent = new HashMap<>();
+        for (Config c : configRepository.findByPathStartingWithOrderByIdAsc(root.descendantsPathPrefix())) {
+            if (c.getParent() != null) {
+                childrenByParent.computeIfAbsent(c.getParent().getId(), k -> new ArrayList<>()).add(c);
+            }
+        }
+        return new ExistingSubtree(childrenByParent);
+    }
+
+    private record ExistingSubtree(Map<Long, List<Config>> childrenByParent) {
+        static final ExistingSubtree EMPTY = new ExistingSubtree(Map.of());
+
+        List<Config> childrenOf(Config config) {
+            if (config == null || config.getId() == null) return List.of();
+            return childrenByParent.getOrDefault(config.getId(), List.of());
         }
     }
 
-    private void preScanNode(String name, Object value) {
+    /* Sincroniza un nodo del JSON con el Config existente emparejado (o null si no hay)
+       attr es el atributo ya resuelto para attributeName
+     */
+    private void syncJsonNode(String attributeName, Object value, Attribute attr, Config parent, Config existing,
+                              ExistingSubtree subtree, ImportContext ctx, int level) {
+        ctx.getNodosProcesados().incrementAndGet();
+        String indent = "  ".repeat(level); // indentación para logs
+
         if (value instanceof Map) {
-            ((Map<?, ?>) value).forEach((k, v) -> preScanNode((String) k, v));
+            Config node = syncContainer(attr, parent, existing, ctx);
+            log.debug("{}[INCREMENTAL] Nodo '{}' (id={})", indent, attributeName, node.getId());
+
+            // Hijos existentes sin emparejar, por atributo
+            Map<Long, Config> unmatched = new LinkedHashMap<>();
+            for (Config child : subtree.childrenOf(existing)) {
+                Long childAttrId = child.getAttribute() != null ? child.getAttribute().getId() : null;
+                if (childAttrId == null || unmatched.putIfAbsent(childAttrId, child) != null) {
+                    removeNode(child, ctx); // sin atributo o repetido: sobra
+                }
+            }
+
+            SiblingOrder order = new SiblingOrder();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                String childName = (String) entry.getKey();
+                Attribute childAttr = resolveAttribute(childName, entry.getValue(), ctx);
+                Config existingChild = keepInOrder(unmatched.remove(childAttr.getId()), order, ctx);
+                syncJsonNode(childName, entry.getValue(), childAttr, node, existingChild, subtree, ctx, level + 1);
+            }
+            unmatched.values().forEach(child -> removeNode(child, ctx));
+
         } else if (value instanceof List) {
-            ensureAttributeForList(name, (List<?>) value);
-            for (Object item : (List<?>) value) {
+            List<?> listValue = (List<?>) value;
+            inferListEnumAttribute(attr, attributeName, listValue, ctx);
+            Config node = syncContainer(attr, parent, existing, ctx);
+            log.debug("{}[INCREMENTAL] Lista '{}' (id={}) tamaño={}", indent, attributeName, node.getId(), listValue.size());
+
+            List<Config> existingItems = subtree.childrenOf(existing);
+            AttributeType listAttrType = attr.getAttributeType();
+            SiblingOrder order = new SiblingOrder();
+
+            for (int i = 0; i < listValue.size(); i++) {
+                Object item = listValue.get(i);
+                Config existingItem = i < existingItems.size() ? existingItems.get(i) : null;
+
                 if (item instanceof Map) {
-                    ((Map<?, ?>) item).forEach((k, v) -> preScanNode((String) k, v));
+                    String itemName = attributeName + "_item_" + i;
+                    Attribute itemAttr = resolveAttribute(itemName, item, ctx);
+                    if (existingItem != null && !sameAttribute(existingItem, itemAttr)) {
+                        removeNode(existingItem, ctx);
+                        existingItem = null;
+                    }
+                    syncJsonNode(itemName, item, itemAttr, node, keepInOrder(existingItem, order, ctx), subtree, ctx, level);
+                } else {
+                    ctx.getNodosProcesados().incrementAndGet();
+                    String itemValue = listItemValue(listAttrType, attributeName, item, i, indent, ctx);
+                    if (existingItem != null && (!sameAttribute(existingItem, attr)
+                            || !subtree.childrenOf(existingItem).isEmpty())) {
+                        removeNode(existingItem, ctx);
+                        existingItem = null;
+                    }
+                    existingItem = keepInOrder(existingItem, order, ctx);
+                    if (existingItem != null) {
+                        updateLeafValue(existingItem, itemValue, ctx);
+                    } else {
+                        insertLeaf(attr, node, itemValue, ctx);
+                    }
                 }
             }
+
+            // Items que sobran por el final
+            for (int i = listValue.size(); i < existingItems.size(); i++) {
+                removeNode(existingItems.get(i), ctx);
+            }
+
         } else {
-            ensureAttributeForPrimitive(name, value);
+            String primitiveValue = value != null ? value.toString() : "";
+            log.debug("{}[INCREMENTAL] Primitivo '{}' = '{}'", indent, attributeName, primitiveValue);
+            matchPrimitiveEnum(attr, primitiveValue, ctx);
+
+            if (existing == null) {
+                insertLeaf(attr, parent, primitiveValue, ctx);
+            } else {
+                // Si antes era un Map o una lista, sus hijos sobran
+                subtree.childrenOf(existing).forEach(child -> removeNode(child, ctx));
+                updateLeafValue(existing, primitiveValue, ctx);
+            }
+        }
+    }
+
+    /* Orden de los hijos en la importación incremental: la exportación los escribe por id, así que el id tiene que
+       crecer con la posición en el JSON. Un nodo nuevo se inserta con un id mayor que todos los existentes: a partir
+       de la primera inserción ya no se puede reutilizar ningún hermano, y tampoco uno emparejado con un id menor
+       que el del hermano anterior
+     */
+    private static final class SiblingOrder {
+
+        private long lastId = Long.MIN_VALUE;
+        private boolean inserted;
+
+        // true si existing (el emparejado con la posición siguiente, o null si no hay) puede quedarse
+        boolean keeps(Config existing) {
+            if (existing == null || inserted || existing.getId() < lastId) {
+                inserted = true;
+                return false;
+            }
+            lastId = existing.getId();
+            return true;
+        }
+    }
+
+    // El nodo emparejado si puede quedarse en su sitio; si no, se borra con su subárbol y se vuelve a crear
+    private Config keepInOrder(Config existing, SiblingOrder order, ImportContext ctx) {
+        if (order.keeps(existing)) return existing;
+        if (existing != null) removeNode(existing, ctx);
+        return null;
+    }
+
+    // Reutiliza el Map o lista existente (dejando su valor a null) o crea uno nuevo
+    private Config syncContainer(Attribute attr, Config parent, Config existing, ImportContext ctx) {
+        if (existing != null) {
+            if (existing.getDefaultValue() != null) {
+                existing.setDefaultValue(null);
+                lookupCache.evictConfig(existing.getId());
+                ctx.getNodosActualizados().incrementAndGet();
+            }
+            return existing;
+        }
+        Config config = new Config();
+        config.setAttribute(attr);
+        config.setParent(parent);
+        ctx.getNodosCreados().incrementAndGet();
+        flushPendingSiblings(parent, ctx);
+        return configRepository.save(config);
+    }
+
+    private void updateLeafValue(Config existing, String value, ImportContext ctx) {
+        if (!Objects.equals(existing.getDefaultValue(), value)) {
+            existing.setDefaultValue(value);
+            lookupCache.evictConfig(existing.getId());
+            ctx.getNodosActualizados().incrementAndGet();
+        }
+    }
+
+    // Las hojas con padre van al lote de inserciones; las raíz se guardan directamente
+    private void insertLeaf(Attribute attr, Config parent, String value, ImportContext ctx) {
+        Config config = new Config();
+        config.setAttribute(attr);
+        config.setParent(parent);
+        config.setDefaultValue(value);
+        ctx.getNodosCreados().incrementAndGet();
+
+        if (batchEnabled && parent != null) {
+            queueInsert(config, ctx);
+        } else {
+            configRepository.save(config);
+        }
+    }
+
+    private void removeNode(Config config, ImportContext ctx) {
+        ctx.getNodosEliminados().addAndGet(deleteSubtree(config, true));
+    }
+
+    private boolean sameAttribute(Config config, Attribute attr) {
+        return config.getAttribute() != null && config.getAttribute().getId().equals(attr.getId());
+    }
+
+    /* Importación en streaming
+       Lee el JSON token a token directamente del InputStream, sin construir el String, el JsonNode ni el Map.
+       Los objetos y las listas de objetos se persisten según se van leyendo, así que la memoria depende de la
+       profundidad del árbol y no del tamaño del documento. Solo se materializan los valores primitivos y las
+       listas de primitivos, que hacen falta completas para inferir el tipo (y el enum) del atributo.
+       Para eso cada streamClearInterval nodos se vuelcan las inserciones y se vacía el contexto de persistencia,
+       los padres se pasan ya guardados en lugar de buscarlos por id y, al cerrar un objeto o lista, se
+       descartan sus hermanos indexados. Lo único que sigue creciendo con el documento es la transacción
+    */
+    public ImportResultDTO importJsonStream(InputStream input) {
+        return importJsonStream(input, ConfigFormat.JSON);
+    }
+
+    public ImportResultDTO importJsonStream(InputStream input, ConfigFormat format) {
+        ImportContext ctx = new ImportContext();
+        ctx.setNextClearAt(streamClearInterval);
+
+        log.debug("Inicio de importación JSON en streaming");
+        // Los nombres no se conocen de antemano: los tipos se cargan ya y los atributos según aparecen
+        loadAttributeTypes(ctx);
+        // El parser hereda STRICT_DUPLICATE_DETECTION del ObjectMapper de su formato
+        try (JsonParser parser = readers.get(format).getFactory().createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new InvalidJsonFormatException("JSON inválido: la raíz debe ser un objeto");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                streamJsonNode(parser, name, null, ctx, 0);
+                releasePersistenceContext(ctx);
+            }
+
+            if (parser.nextToken() != null) {
+                throw new InvalidJsonFormatException("JSON inválido: contenido después del objeto raíz");
+            }
+
+            return finishImport(ctx);
+
+        } catch (JsonParseException e) {
+            throw translateParseException(e);
+        } catch (IOException e) {
+            throw new InvalidJsonFormatException("JSON inválido: error leyendo el contenido " + e.getMessage(), e);
+        }
+    }
+
+    // Vuelca las inserciones pendientes y registra el resultado de la importación
+    private ImportResultDTO finishImport(ImportContext ctx) {
+        flushAttributes(ctx);
+        flushPendingInserts(ctx);
+        exportSnapshotCache.invalidate();
+        ImportResultDTO result = ctx.toResult();
+        long elapsedTime = result.getTiempoMs();
+        long nodosPorSegundo = elapsedTime > 0 ? result.getNodosProcesados() * 1000L / elapsedTime : result.getNodosProcesados();
+        log.debug("Importación JSON finalizada en {} ms ({} nodos/s, batch={}). Procesados={}, Creados={}, Actualizados={}, Eliminados={}",
+                elapsedTime, nodosPorSegundo, batchEnabled ? batchSize : "desactivado",
+                result.getNodosProcesados(), result.getNodosCreados(), result.getNodosActualizados(), result.getNodosEliminados());
+        return result;
+    }
+
+    // Convierte los errores del parser en las excepciones que entiende el controlador
+    private RuntimeException translateParseException(JsonParseException e) {
+        String msg = e.getOriginalMessage();
+        if (msg != null && msg.contains("Duplicate field")) {
+            return new DuplicateKeyException("JSON inválido: clave duplicada " + msg);
+        }
+        return new InvalidJsonFormatException("JSON inválido: error de sintaxis " + msg, e);
+    }
+
+    /* Equivalente en streaming de processJsonNode
+       El parser está posicionado en el primer token del valor del nodo
+       Map => se guarda el nodo, se borran los hijos antiguos y se procesan los hijos según llegan
+       Lista de objetos => igual, cada objeto se procesa como nodo "_item_" según llega
+       Primitivo o lista de primitivos => se materializa el valor y se usa el flujo normal
+     */
+    private void streamJsonNode(JsonParser parser, String attributeName, Config parent,
+                                ImportContext ctx,
+                                int level) throws IOException {
+
+        JsonToken token = parser.currentToken();
+
+        if (token == JsonToken.START_OBJECT) {
+            ctx.getNodosProcesados().incrementAndGet();
+            Attribute attr = getOrCreateAttribute(attributeName, Collections.emptyMap(), ctx);
+            log.debug("{}[STREAM] Procesando nodo '{}'{}", "  ".repeat(level), attributeName,
+                    parent != null ? " con parentId=" + parent.getId() : " (raíz)");
+            Config savedConfig = saveContainerConfig(attr, parent, ctx);
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String childName = parser.currentName();
+                parser.nextToken();
+                streamJsonNode(parser, childName, savedConfig,
+                        ctx, level + 1);
+                releasePersistenceContext(ctx);
+            }
+            releaseStreamedContainer(savedConfig, parent, ctx);
+            return;
+        }
+
+        if (token == JsonToken.START_ARRAY) {
+            JsonToken first = parser.nextToken();
+            if (first == JsonToken.START_OBJECT) {
+                streamObjectList(parser, attributeName, parent, ctx, level);
+                return;
+            }
+
+            // Lista de primitivos: hace falta completa para inferir el tipo y validar los enums
+            List<Object> items = new ArrayList<>();
+            for (JsonToken t = first; t != JsonToken.END_ARRAY; t = parser.nextToken()) {
+                items.add(objectMapper.readValue(parser, Object.class));
+            }
+            processJsonNode(attributeName, items, parent, ctx, level);
+            return;
+        }
+
+        Object value = objectMapper.readValue(parser, Object.class);
+        processJsonNode(attributeName, value, parent, ctx, level);
+    }
+
+    // Lista cuyo primer elemento es un objeto: se persiste elemento a elemento sin materializar la lista
+    private void streamObjectList(JsonParser parser, String attributeName, Config parent,
+                                  ImportContext ctx,
+                                  int level) throws IOException {
+        ctx.getNodosProcesados().incrementAndGet();
+        // Para inferir el tipo basta con el primer elemento (NODE), igual que en determineAttributeType
+        Attribute attr = getOrCreateAttribute(attributeName, List.of(Collections.emptyMap()), ctx);
+        log.debug("{}[STREAM] Procesando lista de objetos '{}'", "  ".repeat(level), attributeName);
+        Config savedConfig = saveContainerConfig(attr, parent, ctx);
+
+        int i = 0;
+        for (JsonToken t = parser.currentToken(); t != JsonToken.END_ARRAY; t = parser.nextToken(), i++) {
+            if (t == JsonToken.START_OBJECT) {
+                streamJsonNode(parser, attributeName + "_item_" + i, savedConfig,
+                        ctx, level);
+            } else {
+                Object item = objectMapper.readValue(parser, Object.class);
+                Config itemConfig = new Config();
+                itemConfig.setAttribute(attr);
+                itemConfig.setParent(savedConfig);
+                itemConfig.setDefaultValue(item != null ? item.toString() : "");
+                saveLeafConfig(itemConfig, ctx);
+                ctx.getNodosCreados().incrementAndGet();
+            }
+            releasePersistenceContext(ctx);
+        }
+        releaseStreamedContainer(savedConfig, parent, ctx);
+    }
+
+    /* Vacía el contexto de persistencia de la importación en streaming cada streamClearInterval nodos
+       Antes se guardan los atributos y las hojas pendientes y se hace flush. Lo que queda en el ImportContext
+       (atributos, tipos, padres abiertos) pasa a estar separado de la sesión, pero solo se usa por id o por
+       campos ya cargados, y los cambios posteriores se guardan con save (merge)
+     */
+    private void releasePersistenceContext(ImportContext ctx) {
+        if (ctx.getNodosProcesados().get() < ctx.getNextClearAt()) return;
+        flushAttributes(ctx);
+        flushPendingInserts(ctx);
+        entityManager.flush();
+        entityManager.clear();
+        ctx.setNextClearAt(ctx.getNodosProcesados().get() + streamClearInterval);
+    }
+
+    /* Fin de un objeto o lista en streaming: las claves de un objeto no se repiten (STRICT_DUPLICATE_DETECTION)
+       y los items tienen nombres distintos, así que ni sus hijos ni su entrada entre los hermanos de su padre
+       se vuelven a consultar
+     */
+    private void releaseStreamedContainer(Config container, Config parent, ImportContext ctx) {
+        ctx.getSiblingsByParent().remove(container.getId());
+        Map<Long, Config> siblings = ctx.getSiblingsByParent().get(parent != null ? parent.getId() : null);
+        if (siblings != null && container.getAttribute() != null) siblings.remove(container.getAttribute().getId());
+    }
+
+    // Guarda (o reutiliza) un nodo Map o lista y borra sus hijos antiguos
+    private Config saveContainerConfig(Attribute attr, Config parent, ImportContext ctx) {
+        Config config = new Config();
+        config.setAttribute(attr);
+        config.setDefaultValue(null);
+        config.setParent(parent);
+        flushPendingSiblings(parent, ctx);
+        Config savedConfig = saveOrGetConfig(config, ctx);
+
+        // Un nodo recién insertado no tiene hijos; si se ha reutilizado uno existente se borran sus hijos antiguos
+        if (savedConfig != config) {
+            ctx.getNodosEliminados().addAndGet(deleteSubtree(savedConfig, false));
+        }
+        // En los dos casos el nodo se queda sin hijos: no hace falta consultarlos al guardar los nuevos
+        ctx.getSiblingsByParent().put(savedConfig.getId(), new HashMap<>());
+        return savedConfig;
+    }
+
+    /* Métodos para inferir enums
+    Busca si un valor o lista coincide con algún AttributeType marcado como enum
+    Esto permite que si tu JSON tiene "color": "ROJO", se asocie automáticamente al AttributeType Color si existe
+    Se usa el índice inverso del EnumDictionary (valor normalizado => tipos enum), ante varios candidatos gana el de menor id
+    */
+    private AttributeType findEnumTypeMatchingValue(String value, ImportContext ctx) {
+        if (value == null) return null;
+        List<Long> candidates = enumDictionary.findEnumTypeIds(AttributeTypeService.normalizarTextos(value));
+        if (candidates.isEmpty()) return null;
+        return findAttributeTypeById(candidates.get(0), ctx);
+    }
+
+    private AttributeType findEnumTypeMatchingList(List<?> list, ImportContext ctx) {
+        if (list == null || list.isEmpty()) return null;
+
+        // Intersección de los candidatos de cada item: tipos que admiten todos los valores
+        SortedSet<Long> common = null;
+        for (Object item : list) {
+            if (item == null) continue;
+            List<Long> candidates = enumDictionary.findEnumTypeIds(AttributeTypeService.normalizarTextos(item.toString()));
+            if (common == null) common = new TreeSet<>(candidates);
+            else common.retainAll(candidates);
+            if (common.isEmpty()) return null;
         }
+
+        if (common == null) {
+            // Lista solo con nulos: cualquier enum vale, se mantiene el primero como antes
+            return ctx.getAttributeCache().getFirstEnumType();
+        }
+        return findAttributeTypeById(common.first(), ctx);
+    }
+
+    /*  Resolución de atributos
+        Se hace en la misma pasada que la persistencia: antes de guardar cada nodo se asegura que su atributo
+        tenga un AttributeType, así el JSON se recorre una sola vez
+        Map => solo se busca o crea el atributo (NODE)
+        Lista o primitivo => además se revisa si el valor encaja con un enum
+    */
+    private Attribute resolveAttribute(String name, Object value, ImportContext ctx) {
+        if (value instanceof List) {
+            ensureAttributeForList(name, (List<?>) value, ctx);
+        } else if (!(value instanceof Map)) {
+            ensureAttributeForPrimitive(name, value, ctx);
+        }
+        return getOrCreateAttribute(name, value, ctx);
     }
 
-    // Registra los atributos en base de datos si no existen.
-    private void ensureAttributeForList(String name, List<?> listValue) {
-        Optional<Attribute> existing = attributeRepository.findByName(name);
-        if (existing.isPresent()) {
-            Attribute attr = existing.get();
-            if (attr.getAttributeType() != null &&
-                    Boolean.TRUE.equals(attr.getAttributeType().getIsEnum()) &&
-                    Boolean.TRUE.equals(attr.getAttributeType().getIsList()))
+    // Registra los atributos si no existen. Se quedan en la caché pendientes de guardar
+    private void ensureAttributeForList(String name, List<?> listValue, ImportContext ctx) {
+        Attribute existing = findAttribute(name, ctx);
+        if (existing != null) {
+            if (existing.getAttributeType() != null &&
+                    Boolean.TRUE.equals(existing.getAttributeType().getIsEnum()) &&
+                    Boolean.TRUE.equals(existing.getAttributeType().getIsList()))
                 return;
 
-            AttributeType inferred = findEnumTypeMatchingList(listValue);
+            AttributeType inferred = findEnumTypeMatchingList(listValue, ctx);
             if (inferred != null) {
-                AttributeType listEnum = inferred;
-                if (!Boolean.TRUE.equals(listEnum.getIsList())) {
-                    listEnum = attributeTypeService.findOrCreateListEnumType(inferred);
-                }
-                attr.setAttributeType(listEnum);
-                attributeRepository.save(attr);
+                existing.setAttributeType(listEnumTypeOf(inferred, ctx));
+                ctx.getAttributeCache().markPending(existing);
             }
             return;
         }
 
         Attribute attr = new Attribute();
         attr.setName(name);
-        AttributeType at = determineAttributeType(listValue, name);
+        AttributeType at = determineAttributeType(listValue, name, ctx);
         attr.setAttributeType(at);
-        attributeRepository.save(attr);
+        registerPendingAttribute(attr, ctx);
     }
 
-    private void ensureAttributeForPrimitive(String name, Object value) {
-        Optional<Attribute> existing = attributeRepository.findByName(name);
-        if (existing.isPresent()) {
-            Attribute attr = existing.get();
-            if (attr.getAttributeType() != null && Boolean.TRUE.equals(attr.getAttributeType().getIsEnum()))
+    private void ensureAttributeForPrimitive(String name, Object value, ImportContext ctx) {
+        Attribute existing = findAttribute(name, ctx);
+        if (existing != null) {
+            if (existing.getAttributeType() != null && Boolean.TRUE.equals(existing.getAttributeType().getIsEnum()))
                 return;
 
             if (value != null) {
-                AttributeType match = findEnumTypeMatchingValue(value.toString());
+                AttributeType match = findEnumTypeMatchingValue(value.toString(), ctx);
                 if (match != null) {
-                    match.setIsList(false);
-                    attr.setAttributeType(match);
-                    attributeRepository.save(attr);
+                    markAsSingleValue(match);
+                    existing.setAttributeType(match);
+                    ctx.getAttributeCache().markPending(existing);
                 }
             }
             return;
@@ -275,9 +900,133 @@ public class ConfigService {
 
         Attribute attr = new Attribute();
         attr.setName(name);
-        AttributeType at = determineAttributeType(value, name);
+        AttributeType at = determineAttributeType(value, name, ctx);
         attr.setAttributeType(at);
-        attributeRepository.save(attr);
+        registerPendingAttribute(attr, ctx);
+    }
+
+    /*  Métodos de la caché de atributos de la importación
+        Los atributos del documento se cargan con una consulta IN por bloques y los tipos con un findAll,
+        así las búsquedas por nombre o por (type, isList, isEnum) no van a base de datos
+     */
+
+    // Nombres de atributo del documento, incluidos los "_item_" de las listas de objetos
+    private Set<String> collectAttributeNames(Map<String, Object> jsonMap) {
+        Set<String> names = new HashSet<>();
+        if (jsonMap != null) jsonMap.forEach((k, v) -> collectAttributeNames(k, v, names));
+        return names;
+    }
+
+    private void collectAttributeNames(String name, Object value, Set<String> names) {
+        names.add(name);
+        if (value instanceof Map) {
+            ((Map<?, ?>) value).forEach((k, v) -> collectAttributeNames((String) k, v, names));
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            for (int i = 0; i < list.size(); i++) {
+                if (list.get(i) instanceof Map) collectAttributeNames(name + "_item_" + i, list.get(i), names);
+            }
+        }
+    }
+
+    private void loadAttributeCache(ImportContext ctx, Collection<String> names) {
+        loadAttributeTypes(ctx);
+        ImportAttributeCache cache = ctx.getAttributeCache();
+        List<String> nameList = new ArrayList<>(names);
+        for (int i = 0; i < nameList.size(); i += ATTRIBUTE_LOOKUP_CHUNK_SIZE) {
+            List<String> chunk = nameList.subList(i, Math.min(i + ATTRIBUTE_LOOKUP_CHUNK_SIZE, nameList.size()));
+            for (Attribute attr : attributeRepository.findAllByNameIn(chunk)) {
+                if (cache.getAttribute(attr.getName()) == null) cache.putAttribute(attr.getName(), attr);
+            }
+            // Los que no están en base de datos se marcan como buscados
+            for (String name : chunk) {
+                if (!cache.isAttributeLoaded(name)) cache.putAttribute(name, null);
+            }
+        }
+        log.debug("Caché de importación cargada: {} nombres de atributo", nameList.size());
+    }
+
+    private void loadAttributeTypes(ImportContext ctx) {
+        attributeTypeRepository.findAll(Sort.by("id")).forEach(ctx.getAttributeCache()::putType);
+    }
+
+    // Busca en la caché y, si el nombre no se había cargado (importación en streaming), en base de datos
+    private Attribute findAttribute(String name, ImportContext ctx) {
+        ImportAttributeCache cache = ctx.getAttributeCache();
+        if (!cache.isAttributeLoaded(name)) {
+            // Con el tipo cargado: en streaming el atributo puede quedar fuera de la sesión tras un clear
+            cache.putAttribute(name, attributeRepository.findWithAttributeTypeByName(name).orElse(null));
+        }
+        return cache.getAttribute(name);
+    }
+
+    private void registerPendingAttribute(Attribute attr, ImportContext ctx) {
+        if (ctx.isConcurrent()) {
+            // En paralelo el alta no se aplaza: otras tareas pueden necesitar el mismo atributo
+            ctx.getAttributeCache().putAttribute(attr.getName(), saveNewAttribute(attr, ctx));
+            return;
+        }
+        ctx.getAttributeCache().putAttribute(attr.getName(), attr);
+        ctx.getAttributeCache().markPending(attr);
+    }
+
+    // Alta de un atributo. En paralelo va por el AttributeRegistry y, si otra tarea lo ha creado a la vez, se usa el suyo
+    private Attribute saveNewAttribute(Attribute attr, ImportContext ctx) {
+        if (!ctx.isConcurrent()) return attributeRepository.save(attr);
+        try {
+            return attributeRegistry.createAttribute(attr);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Atributo '{}' creado a la vez por otra tarea, se reutiliza", attr.getName());
+            return attributeRegistry.findAttribute(attr.getName()).orElseThrow(() -> e);
+        }
+    }
+
+    // Igual que saveNewAttribute para los AttributeType (índice único por type, is_list, is_enum)
+    private AttributeType saveNewAttributeType(AttributeType type, ImportContext ctx) {
+        if (!ctx.isConcurrent()) return attributeTypeRepository.save(type);
+        try {
+            return attributeRegistry.createAttributeType(type);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("AttributeType '{}' creado a la vez por otra tarea, se reutiliza", type.getType());
+            return attributeRegistry.findAttributeType(type.getType(), type.getIsList(), type.getIsEnum())
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    // Guarda de una vez los atributos nuevos o modificados
+    private void flushAttributes(ImportContext ctx) {
+        if (!ctx.getAttributeCache().hasPending()) return;
+        List<Attribute> pending = ctx.getAttributeCache().drainPending();
+        attributeRepository.saveAll(pending);
+        // Los que ya existían han cambiado de tipo
+        pending.forEach(attr -> lookupCache.evictAttribute(attr.getId()));
+        log.debug("Guardados {} atributos de la importación", pending.size());
+    }
+
+    private AttributeType findAttributeTypeById(Long id, ImportContext ctx) {
+        AttributeType type = ctx.getAttributeCache().getTypeById(id);
+        if (type == null && id != null) {
+            // Tipo creado después de cargar la caché (por ejemplo desde otro hilo)
+            type = attributeTypeRepository.findById(id).orElse(null);
+            ctx.getAttributeCache().putType(type);
+        }
+        return type;
+    }
+
+    // Tipo lista de un enum base; se busca primero en la caché y, si no, se crea con el AttributeTypeService
+    private AttributeType listEnumTypeOf(AttributeType inferred, ImportContext ctx) {
+        if (Boolean.TRUE.equals(inferred.getIsList())) return inferred;
+        AttributeType listEnum = ctx.getAttributeCache().getType(inferred.getType(), true, true);
+        if (listEnum == null) {
+            try {
+                listEnum = attributeTypeService.findOrCreateListEnumType(inferred);
+            } catch (DataIntegrityViolationException e) {
+                // Otra importación en paralelo ha creado el tipo lista a la vez
+                listEnum = attributeRegistry.findAttributeType(inferred.getType(), true, true).orElseThrow(() -> e);
+            }
+            ctx.getAttributeCache().putType(listEnum);
+        }
+        return listEnum;
     }
 
     /* Determina el tipo del atributo
@@ -285,7 +1034,7 @@ public class ConfigService {
        Si es lista (isList) o enum (isEnum)
        Si no existe, lo crea en la base de datos
      */
-    private AttributeType determineAttributeType(Object value, String attributeName) {
+    private AttributeType determineAttributeType(Object value, String attributeName, ImportContext ctx) {
         boolean isList = value instanceof List;
         boolean isEnum = false;
         String typeStr;
@@ -305,24 +1054,26 @@ public class ConfigService {
         else typeStr = "STRING";
 
         if (!isList && value != null) {
-            AttributeType match = findEnumTypeMatchingValue(value.toString());
+            AttributeType match = findEnumTypeMatchingValue(value.toString(), ctx);
             if (match != null) return match;
         }
 
         if (isList) {
-            AttributeType match = findEnumTypeMatchingList((List<?>) value);
+            AttributeType match = findEnumTypeMatchingList((List<?>) value, ctx);
             if (match != null) return match;
         }
 
-        Optional<AttributeType> existing = attributeTypeRepository.findByTypeAndIsListAndIsEnum(typeStr, isList, false);
-        if (existing.isPresent()) return existing.get();
+        AttributeType existing = ctx.getAttributeCache().getType(typeStr, isList, false);
+        if (existing != null) return existing;
 
         AttributeType type = new AttributeType();
         type.setType(typeStr);
         type.setIsList(isList);
         type.setIsEnum(isEnum);
 
-        return attributeTypeRepository.save(type);
+        AttributeType saved = saveNewAttributeType(type, ctx);
+        ctx.getAttributeCache().putType(saved);
+        return saved;
     }
 
     /*  Aquí es donde realmente se construye la jerarquía Config en la BBDD
@@ -332,40 +1083,32 @@ public class ConfigService {
         Primitivo → valor simple => se guarda en defaultValue
         Además maneja: inferencia de enums para listas y eliminación recursiva de hijos antiguos antes de crear nuevos
      */
-    private void processJsonNode(String attributeName, Object value, Long parentId,
-                                 AtomicInteger nodosProcesados,
-                                 AtomicInteger nodosCreados,
-                                 AtomicInteger nodosEliminados,
+    private void processJsonNode(String attributeName, Object value, Config parent,
+                                 ImportContext ctx,
                                  int level) {
 
-        nodosProcesados.incrementAndGet();
-        Attribute attr = getOrCreateAttribute(attributeName, value);
+        ctx.getNodosProcesados().incrementAndGet();
+        Attribute attr = resolveAttribute(attributeName, value, ctx);
 
         Config config = new Config();
         config.setAttribute(attr);
 
         String indent = "  ".repeat(level); // indentación para logs
 
-        if (parentId != null) {
-            log.debug("{}[PADRE] Procesando nodo '{}'{}", indent, attributeName, parentId != null ? " con parentId=" + parentId : "");
-            configRepository.findById(parentId).ifPresent(config::setParent);
-            log.debug("[HIJO] Procesando nodo '{}' con parentId={}", attributeName, parentId);
+        if (parent != null) {
+            config.setParent(parent);
+            log.debug("[HIJO] Procesando nodo '{}' con parentId={}", attributeName, parent.getId());
         }
 
         if (value instanceof Map) {
             log.debug("{}[PADRE] Procesando nodo '{}'{}", indent, attributeName,
-                    parentId != null ? " con parentId=" + parentId : " (raíz)");
-            // Nodo tipo MAP
-            config.setDefaultValue(null);
-            Config savedConfig = saveOrGetConfig(config);
-
-            // Borrar hijos antiguos
-            List<Config> existingChildren = configRepository.findByParentIdOrderByIdAsc(savedConfig.getId());
-            existingChildren.forEach(c -> deleteConfigRecursively(c, nodosEliminados));
+                    parent != null ? " con parentId=" + parent.getId() : " (raíz)");
+            // Nodo tipo MAP: se guarda y se borran los hijos antiguos
+            Config savedConfig = saveContainerConfig(attr, parent, ctx);
 
             // Procesar hijos
-            ((Map<?, ?>) value).forEach((k, v) -> processJsonNode((String) k, v, savedConfig.getId(),
-                    nodosProcesados, nodosCreados, nodosEliminados, level + 1));
+            ((Map<?, ?>) value).forEach((k, v) -> processJsonNode((String) k, v, savedConfig,
+                    ctx, level + 1));
 
         } else if (value instanceof List) {
             // Nodo tipo LISTA
@@ -373,61 +1116,26 @@ public class ConfigService {
             List<?> listValue = (List<?>) value;
 
             // Inferir AttributeType enum para la lista si no existe
-            AttributeType attrType = attr.getAttributeType();
-            if (attrType == null || !Boolean.TRUE.equals(attrType.getIsEnum()) || !Boolean.TRUE.equals(attrType.getIsList())) {
-                AttributeType inferred = inferEnumTypeForList(attributeName, listValue);
-                if (inferred != null) {
-                    if (!Boolean.TRUE.equals(inferred.getIsList())) {
-                        inferred = attributeTypeService.findOrCreateListEnumType(inferred);
-                    }
-                    attr.setAttributeType(inferred);
-                    attributeRepository.save(attr);
-                }
-            }
-
-            config.setDefaultValue(null);
-            Config savedConfig = saveOrGetConfig(config);
+            inferListEnumAttribute(attr, attributeName, listValue, ctx);
 
-            // Borrar hijos antiguos
-            List<Config> existingChildren = configRepository.findByParentIdOrderByIdAsc(savedConfig.getId());
-            existingChildren.forEach(c -> deleteConfigRecursively(c, nodosEliminados));
+            // Se guarda la lista y se borran los hijos antiguos
+            Config savedConfig = saveContainerConfig(attr, parent, ctx);
 
             AttributeType listAttrType = attr.getAttributeType();
 
             for (int i = 0; i < listValue.size(); i++) {
                 Object item = listValue.get(i);
                 if (item instanceof Map) {
-                    processJsonNode(attributeName + "_item_" + i, item, savedConfig.getId(),
-                            nodosProcesados, nodosCreados, nodosEliminados, level);
+                    processJsonNode(attributeName + "_item_" + i, item, savedConfig,
+                            ctx, level);
                 } else {
-                    String itemValue = item != null ? item.toString() : "";
-                    log.debug("{}[LISTA] {}[{}] = '{}'", indent, attributeName, i, itemValue);
                     Config itemConfig = new Config();
                     itemConfig.setAttribute(attr);
                     itemConfig.setParent(savedConfig);
+                    itemConfig.setDefaultValue(listItemValue(listAttrType, attributeName, item, i, indent, ctx));
 
-                    if (listAttrType != null && Boolean.TRUE.equals(listAttrType.getIsEnum())) {
-                        // Buscar tipo base del enum (no-list)
-                        AttributeType baseEnumType = attributeTypeRepository
-                                .findByTypeAndIsListAndIsEnum(listAttrType.getType(), false, true)
-                                .orElse(listAttrType);
-
-                        String mappedValue = attributeTypeService.findClosestAllowedValue(baseEnumType, itemValue);
-                        if (mappedValue != null) {
-                            itemConfig.setDefaultValue(mappedValue); // Guarda valor real de BBDD
-                        } else {
-                            List<String> valoresValidos = attributeTypeService.getAllowedValues(baseEnumType);
-                            log.error("{}[LISTA][ERROR] El valor '{}' no es válido para el enum '{}' en la posición {}. Valores permitidos: {}",
-                                    indent, itemValue, attributeName, i, valoresValidos);
-                            throw new InvalidEnumValueException(attributeName, itemValue,
-                                    valoresValidos);
-                        }
-                    } else {
-                        itemConfig.setDefaultValue(itemValue);
-                    }
-
-                    saveOrGetConfig(itemConfig);
-                    nodosCreados.incrementAndGet();
+                    saveLeafConfig(itemConfig, ctx);
+                    ctx.getNodosCreados().incrementAndGet();
                 }
             }
 
@@ -437,23 +1145,75 @@ public class ConfigService {
             log.debug("[PRIMITIVO] Nodo '{}' = '{}'", attributeName, primitiveValue);
 
             // Intentar asociar a enum si existe
-            AttributeType match = findEnumTypeMatchingValue(primitiveValue);
-            if (match != null && attr.getAttributeType() == null) {
-                match.setIsList(false);
-                attr.setAttributeType(match);
-                attributeRepository.save(attr);
-            }
+            matchPrimitiveEnum(attr, primitiveValue, ctx);
 
             config.setDefaultValue(primitiveValue);
-            saveOrGetConfig(config);
-            nodosCreados.incrementAndGet();
+            saveLeafConfig(config, ctx);
+            ctx.getNodosCreados().incrementAndGet();
+        }
+    }
+
+    // Inferir AttributeType enum para la lista si el atributo aún no es una lista de enums
+    private void inferListEnumAttribute(Attribute attr, String attributeName, List<?> listValue, ImportContext ctx) {
+        AttributeType attrType = attr.getAttributeType();
+        if (attrType == null || !Boolean.TRUE.equals(attrType.getIsEnum()) || !Boolean.TRUE.equals(attrType.getIsList())) {
+            AttributeType inferred = inferEnumTypeForList(attributeName, listValue, ctx);
+            if (inferred != null) {
+                attr.setAttributeType(listEnumTypeOf(inferred, ctx));
+                ctx.getAttributeCache().markPending(attr);
+            }
+        }
+    }
+
+    // Valor que se guarda para un item primitivo de lista; en listas de enums se valida y se usa el valor real de BBDD
+    private String listItemValue(AttributeType listAttrType, String attributeName, Object item, int i, String indent,
+                                 ImportContext ctx) {
+        String itemValue = item != null ? item.toString() : "";
+        log.debug("{}[LISTA] {}[{}] = '{}'", indent, attributeName, i, itemValue);
+
+        if (listAttrType == null || !Boolean.TRUE.equals(listAttrType.getIsEnum())) {
+            return itemValue;
+        }
+
+        // Buscar tipo base del enum (no-list)
+        AttributeType baseEnumType = ctx.getAttributeCache().getType(listAttrType.getType(), false, true);
+        if (baseEnumType == null) baseEnumType = listAttrType;
+
+        String mappedValue = attributeTypeService.findClosestAllowedValue(baseEnumType, itemValue);
+        if (mappedValue != null) {
+            return mappedValue; // Guarda valor real de BBDD
+        }
+        List<String> valoresValidos = attributeTypeService.getAllowedValues(baseEnumType);
+        log.error("{}[LISTA][ERROR] El valor '{}' no es válido para el enum '{}' en la posición {}. Valores permitidos: {}",
+                indent, itemValue, attributeName, i, valoresValidos);
+        throw new InvalidEnumValueException(attributeName, itemValue, valoresValidos);
+    }
+
+    // Asocia el atributo a un enum si el valor primitivo coincide con alguno y aún no tiene tipo
+    private void matchPrimitiveEnum(Attribute attr, String primitiveValue, ImportContext ctx) {
+        AttributeType match = findEnumTypeMatchingValue(primitiveValue, ctx);
+        if (match != null && attr.getAttributeType() == null) {
+            markAsSingleValue(match);
+            attr.setAttributeType(match);
+            ctx.getAttributeCache().markPending(attr);
+        }
+    }
+
+    // Un enum que encaja con un valor primitivo se usa como tipo simple (no lista)
+    private void markAsSingleValue(AttributeType type) {
+        if (!Boolean.FALSE.equals(type.getIsList())) {
+            type.setIsList(false);
+            // save y no solo dirty checking: en streaming el tipo puede estar separado de la sesión
+            attributeTypeRepository.save(type);
+            lookupCache.evictAttributeType(type.getId());
         }
     }
 
     /* Si la config ya existe para ese atributo y padre, la actualiza. Si no existe, la guarda
        Maneja listas y nodos padre-hijo
+       Los hermanos de cada padre se consultan una sola vez por importación y se indexan por atributo
      */
-    private Config saveOrGetConfig(Config cfg) {
+    private Config saveOrGetConfig(Config cfg, ImportContext ctx) {
         Long attributeId = cfg.getAttribute() != null ? cfg.getAttribute().getId() : null;
         Long parentId = cfg.getParent() != null ? cfg.getParent().getId() : null;
 
@@ -469,216 +1229,147 @@ public class ConfigService {
             log.warn("No se pudo determinar si es lista, flujo normal. Error: {}", ex.getMessage());
         }
 
-        List<Config> siblings = parentId != null
-                ? configRepository.findByParentIdOrderByIdAsc(parentId)
-                : configRepository.findByParentIsNull();
-
-        for (Config c : siblings) {
-            if (c.getAttribute() != null && c.getAttribute().getId().equals(attributeId)) {
-                boolean esLista = c.getAttribute().getAttributeType() != null &&
-                        Boolean.TRUE.equals(c.getAttribute().getAttributeType().getIsList());
-                if (!esLista) {
-                    c.setDefaultValue(cfg.getDefaultValue());
-                    return configRepository.save(c);
-                }
-                return c;
+        Map<Long, Config> siblings = siblingsByAttribute(parentId, ctx);
+
+        Config c = attributeId != null ? siblings.get(attributeId) : null;
+        if (c != null) {
+            // Mismo atributo que c (se empareja por id); se mira el de cfg, que está cargado, para no inicializar el proxy de c
+            boolean esLista = cfg.getAttribute().getAttributeType() != null &&
+                    Boolean.TRUE.equals(cfg.getAttribute().getAttributeType().getIsList());
+            if (!esLista) {
+                c.setDefaultValue(cfg.getDefaultValue());
+                lookupCache.evictConfig(c.getId());
+                return configRepository.save(c);
             }
+            return c;
         }
-        return configRepository.save(cfg);
-    }
 
-    // Busca un atributo por nombre o lo crea con su AttributeType
-    private Attribute getOrCreateAttribute(String name, Object value) {
-        Optional<Attribute> existing = attributeRepository.findByName(name);
-        if (existing.isPresent()) return existing.get();
+        Config saved = configRepository.save(cfg);
+        if (attributeId != null) siblings.put(attributeId, saved);
+        return saved;
+    }
 
-        Attribute attr = new Attribute();
-        attr.setName(name);
-        AttributeType attrType = determineAttributeType(value, name);
-        attr.setAttributeType(attrType);
-        return attributeRepository.save(attr);
+    // Hijos de un padre (null => raíces) por id de atributo; ante repetidos se queda el primero que devuelve la consulta
+    private Map<Long, Config> siblingsByAttribute(Long parentId, ImportContext ctx) {
+        return ctx.getSiblingsByParent().computeIfAbsent(parentId, id -> {
+            List<Config> siblings = id != null
+                    ? configRepository.findByParentIdOrderByIdAsc(id)
+                    : configRepository.findByParentIsNull();
+            Map<Long, Config> byAttribute = new HashMap<>();
+            for (Config sibling : siblings) {
+                if (sibling.getAttribute() != null) byAttribute.putIfAbsent(sibling.getAttribute().getId(), sibling);
+            }
+            return byAttribute;
+        });
     }
 
-    // Borra un nodo y todos sus hijos de la BBDD
-    private void deleteConfigRecursively(Config config, AtomicInteger nodosEliminados) {
-        List<Config> children = configRepository.findByParentIdOrderByIdAsc(config.getId());
-        for (Config child : children) {
-            deleteConfigRecursively(child, nodosEliminados);
+    /* Guarda un nodo hoja (primitivo o item de lista)
+       Si tiene padre, ese padre se acaba de crear o vaciar en esta importación, así que no hay hermano que actualizar
+       y la fila se encola para insertarla por lotes con JDBC. Las hojas raíz siguen el flujo normal de saveOrGetConfig
+     */
+    private void saveLeafConfig(Config cfg, ImportContext ctx) {
+        if (!batchEnabled || cfg.getParent() == null) {
+            saveOrGetConfig(cfg, ctx);
+            return;
         }
-        configRepository.delete(config);
-        nodosEliminados.incrementAndGet();
+        queueInsert(cfg, ctx);
     }
 
-    // Inferir enums a las listas
-    private AttributeType inferEnumTypeForList(String attributeName, List<?> items) {
-        log.debug("Intentando inferir ENUM para la lista '{}', tamaño {}", attributeName, items.size());
-
-        // Traer todos los AttributeType que sean enums
-        List<AttributeType> enumTypes = attributeTypeRepository.findByIsEnum(true);
-        if (enumTypes == null || enumTypes.isEmpty()) return null;
-
-        AttributeType bestMatch = null;
-        int maxMatches = 0;
-
-        for (AttributeType at : enumTypes) {
-            int matches = 0;
-            for (Object item : items) {
-                if (item == null) continue;
-                String s = item.toString();
-                String mapped = attributeTypeService.findClosestAllowedValue(at, s);
-                if (mapped != null) matches++;
-            }
+    private void queueInsert(Config cfg, ImportContext ctx) {
+        ctx.getPendingInserts().add(cfg);
+        ctx.getPendingParentIds().add(cfg.getParent().getId());
+        if (ctx.getPendingInserts().size() >= batchSize) {
+            flushPendingInserts(ctx);
+        }
+    }
 
-            if (matches > maxMatches) {
-                maxMatches = matches;
-                bestMatch = at;
-            }
+    /* La exportación ordena los hermanos por id y los del lote reciben el suyo al insertarse: antes de guardar
+       directamente un Map o lista se inserta el lote si lleva hojas del mismo padre, para que el contenedor quede
+       detrás de ellas. Las hojas de otros padres pueden seguir esperando
+     */
+    private void flushPendingSiblings(Config parent, ImportContext ctx) {
+        if (parent != null && ctx.getPendingParentIds().contains(parent.getId())) {
+            flushPendingInserts(ctx);
         }
+    }
 
-        // Retornar solo si hay al menos un match
-        return maxMatches > 0 ? bestMatch : null;
+    private void flushPendingInserts(ImportContext ctx) {
+        List<Config> pending = ctx.getPendingInserts();
+        if (pending.isEmpty()) return;
+        configBatchWriter.insertAll(pending, batchSize);
+        log.debug("Insertados {} Config por lotes", pending.size());
+        pending.clear();
+        ctx.getPendingParentIds().clear();
     }
 
-    /* Exportación completa a JSON
-       Recorre todos los Config raíz (parent = null) y reconstruye un objeto JSON
-       Llama recursivamente a buildJsonValue
-    */
-    public String exportToJson() {
-        log.debug("Iniciando exportación a JSON...");
-        List<Config> rootConfigs = configRepository.findByParentIsNull();
-        log.debug("Nodos raíz encontrados: {}", rootConfigs.size());
-        Map<String, Object> result = new LinkedHashMap<>();
-        AtomicInteger totalNodesExported = new AtomicInteger(0);
-
-        for (Config config : rootConfigs) {
-            if (config.getAttribute() != null) {
-                String attrName = config.getAttribute().getName();
-                log.debug("[ROOT] Exportando nodo raíz '{}'", attrName);
-                Object value = buildJsonValue(config, totalNodesExported);
-                result.put(attrName, value);
-            } else {
-                log.warn("Nodo raíz sin atributo asociado, id={}", config.getId());
-            }
+    /* Busca un atributo por nombre o lo crea con su AttributeType
+       El Config que lo referencia necesita su id, así que si estaba pendiente se guardan los pendientes
+     */
+    private Attribute getOrCreateAttribute(String name, Object value, ImportContext ctx) {
+        Attribute existing = findAttribute(name, ctx);
+        if (existing != null) {
+            if (existing.getId() == null) flushAttributes(ctx);
+            return existing;
         }
 
-        try {
-            String json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(result);
-            log.debug("Exportación finalizada. Nodos exportados: {}. Longitud del JSON: {} caracteres",
-                    totalNodesExported.get(), json.length());
-            return json;
-        } catch (Exception e) {
-            log.error("Error generando el JSON", e);
-            return "{}";
-        }
+        Attribute attr = new Attribute();
+        attr.setName(name);
+        AttributeType attrType = determineAttributeType(value, name, ctx);
+        attr.setAttributeType(attrType);
+        Attribute saved = saveNewAttribute(attr, ctx);
+        ctx.getAttributeCache().putAttribute(name, saved);
+        return saved;
     }
 
-    /* Maneja listas, enums, tipos primitivos y nodos hijos
-       Convierte los valores de string a Boolean, Numeric o enum según corresponda
-       Agrupa los items de lista usando el sufijo _item_
+    /* Borra todos los descendientes de un nodo (y el propio nodo si includeRoot) sin recorrer el árbol
+       Los ids salen de una consulta por rango de path. Primero se sueltan los padres y después se borran,
+       en bloques de DELETE ... WHERE id IN (...), para que la FK de parent no dependa del orden de borrado
+       No carga las entidades en el contexto de persistencia. Devuelve el número de nodos borrados
      */
-    private Object buildJsonValue(Config config, AtomicInteger totalNodesExported) {
-        totalNodesExported.incrementAndGet();
-        String attrName = config.getAttribute() != null ? config.getAttribute().getName() : "(sin atributo)";
-        Long id = config.getId();
-        List<Config> children = configRepository.findByParentIdOrderByIdAsc(config.getId());
-        AttributeType attrType = config.getAttribute() != null ? config.getAttribute().getAttributeType() : null;
-
-        // Manejo de listas
-        if (attrType != null && Boolean.TRUE.equals(attrType.getIsList())) {
-            log.debug("[EXPORT-LIST] '{}' (id={}) contiene {} elementos",
-                    attrName, id, children.size());
-            List<Object> list = new ArrayList<>();
-            for (Config child : children) {
-
-                log.debug("[EXPORT-LIST]   -> Item hijo '{}' (id={}) valor='{}'",
-                        child.getAttribute() != null ? child.getAttribute().getName() : "(sin atributo)",
-                        child.getId(),
-                        child.getDefaultValue()
-                );
-                String childValue = child.getDefaultValue();
-                if (childValue == null) continue;
-
-                // Enum list
-                if (Boolean.TRUE.equals(attrType.getIsEnum())) {
-                    AttributeType baseEnumType = attributeTypeRepository
-                            .findByTypeAndIsListAndIsEnum(attrType.getType(), false, true)
-                            .orElse(attrType);
-
-                    String allowedValue = attributeTypeService.findClosestAllowedValue(baseEnumType, childValue);
-                    if (allowedValue != null) list.add(allowedValue);
-
-                } else {
-                    // Boolean, Numeric o String
-                    switch (attrType.getType()) {
-                        case "BOOLEAN":
-                            list.add(Boolean.parseBoolean(childValue));
-                            break;
-                        case "NUMERIC":
-                            list.add(parseNumeros(childValue));
-                            break;
-                        default:
-                            list.add(childValue);
-                    }
-                }
-            }
-            return list;
+    private int deleteSubtree(Config root, boolean includeRoot) {
+        List<Long> ids = new ArrayList<>(configRepository.findDescendantIds(root.descendantsPathPrefix()));
+        if (includeRoot) ids.add(root.getId());
+        if (ids.isEmpty()) return 0;
+
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += DELETE_CHUNK_SIZE) {
+            chunks.add(ids.subList(i, Math.min(i + DELETE_CHUNK_SIZE, ids.size())));
         }
+        chunks.forEach(configRepository::detachParents);
+        lookupCache.evictConfigs(ids);
+        int eliminados = 0;
+        for (List<Long> chunk : chunks) {
+            eliminados += configRepository.deleteByIds(chunk);
+        }
+        log.debug("Borrado el subárbol de Config id={}: {} nodos", root.getId(), eliminados);
+        return eliminados;
+    }
 
-        // Valor primitivo
-        if (children.isEmpty()) {
-            log.debug("[EXPORT-PRIMITIVE] '{}' (id={}) = '{}'", attrName, id, config.getDefaultValue());
-            String value = config.getDefaultValue();
-            if (value == null) return null;
-
-            if (attrType != null && Boolean.TRUE.equals(attrType.getIsEnum())) {
-                String allowedValue = attributeTypeService.findClosestAllowedValue(attrType, value);
-                if (allowedValue != null) return allowedValue;
-            }
+    // Inferir enums a las listas
+    // Cuenta, con el índice inverso, cuántos items admite cada tipo enum y se queda con el que más (empate => menor id)
+    private AttributeType inferEnumTypeForList(String attributeName, List<?> items, ImportContext ctx) {
+        log.debug("Intentando inferir ENUM para la lista '{}', tamaño {}", attributeName, items.size());
 
-            if (attrType != null) {
-                switch (attrType.getType()) {
-                    case "BOOLEAN":
-                        return Boolean.parseBoolean(value);
-                    case "NUMERIC":
-                        return parseNumeros(value);
-                    default:
-                        return value;
-                }
+        Map<Long, Integer> matchesByType = new HashMap<>();
+        for (Object item : items) {
+            if (item == null) continue;
+            String normalized = AttributeTypeService.normalizarTextos(item.toString());
+            for (Long typeId : enumDictionary.findEnumTypeIds(normalized)) {
+                matchesByType.merge(typeId, 1, Integer::sum);
             }
-
-            return value;
         }
 
-        // Nodos
-        Map<String, Object> obj = new LinkedHashMap<>();
-        for (Config child : children) {
-            if (child.getAttribute() != null) {
-                String childAttrName = child.getAttribute().getName();
-                // Manejo de listas: nombres con _item_ se agrupan por padre
-                if (childAttrName.contains("_item_")) {
-                    childAttrName = childAttrName.substring(0, childAttrName.lastIndexOf("_item_"));
-                }
-                Object childValue = buildJsonValue(child, totalNodesExported);
-                obj.put(childAttrName, childValue);
-            } else {
-                log.warn("Nodo hijo sin atributo, id={}", child.getId());
+        Long bestMatch = null;
+        int maxMatches = 0;
+        for (Map.Entry<Long, Integer> entry : matchesByType.entrySet()) {
+            int matches = entry.getValue();
+            if (matches > maxMatches || (matches == maxMatches && entry.getKey() < bestMatch)) {
+                maxMatches = matches;
+                bestMatch = entry.getKey();
             }
         }
-        return obj;
-    }
 
-    // Parseo de números
-    private Object parseNumeros(String value) {
-        if (value == null) return null;
-        try {
-            if (value.matches("^-?\\d+$")) {
-                long longValue = Long.parseLong(value);
-                if (longValue >= Integer.MIN_VALUE && longValue <= Integer.MAX_VALUE) return (int) longValue;
-                return longValue;
-            }
-            return Double.parseDouble(value);
-        } catch (Exception e) {
-            return value;
-        }
+        // Retornar solo si hay al menos un match
+        return bestMatch != null ? findAttributeTypeById(bestMatch, ctx) : null;
     }
 }
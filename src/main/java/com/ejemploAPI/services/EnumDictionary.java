@@ -0,0 +1,110 @@
+package com.ejemploAPI.services;
+
+import com.ejemploAPI.projections.AttributeTypeValueRow;
+import com.ejemploAPI.repositories.AttributeTypeValueRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/* Diccionario en memoria de los valores permitidos de los enums
+   Para cada AttributeType guarda valor normalizado => valor real de BBDD, así resolver un enum es
+   una búsqueda en un HashMap en lugar de una consulta y una normalización por cada valor permitido.
+   Además guarda el índice inverso valor normalizado => ids de los AttributeType enum que lo admiten,
+   para inferir el enum de un valor sin recorrer todos los tipos.
+   Se construye con una sola consulta la primera vez que se usa y se invalida cuando cambian los valores
+ */
+@Component
+public class EnumDictionary {
+
+    private static final Logger log = LoggerFactory.getLogger(EnumDictionary.class);
+
+    private final AttributeTypeValueRepository attributeTypeValueRepository;
+
+    // null = hay que reconstruirlo en el próximo acceso
+    private volatile Snapshot snapshot;
+
+    public EnumDictionary(AttributeTypeValueRepository attributeTypeValueRepository) {
+        this.attributeTypeValueRepository = attributeTypeValueRepository;
+    }
+
+    // Devuelve el valor real de BBDD que corresponde al valor ya normalizado, o null si no está permitido
+    public String findCanonicalValue(Long attributeTypeId, String normalizedValue) {
+        if (attributeTypeId == null || normalizedValue == null) return null;
+        Map<String, String> values = snapshot().valuesByType().get(attributeTypeId);
+        return values != null ? values.get(normalizedValue) : null;
+    }
+
+    // Ids de los AttributeType enum que admiten el valor ya normalizado, ordenados de menor a mayor
+    public List<Long> findEnumTypeIds(String normalizedValue) {
+        if (normalizedValue == null) return List.of();
+        return snapshot().enumTypesByValue().getOrDefault(normalizedValue, List.of());
+    }
+
+    /* Descarta el diccionario
+       Si hay una transacción en curso se vuelve a descartar al terminarla, para no quedarnos con
+       un diccionario construido por otro hilo antes de que los cambios estuvieran confirmados
+     */
+    public void invalidate() {
+        clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    clear();
+                }
+            });
+        }
+    }
+
+    private synchronized void clear() {
+        snapshot = null;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) return current;
+
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = load();
+            }
+            return snapshot;
+        }
+    }
+
+    private Snapshot load() {
+        Map<Long, Map<String, String>> byType = new HashMap<>();
+        Map<String, SortedSet<Long>> byValue = new HashMap<>();
+        // Ordenado por id: ante dos valores que normalizan igual gana el primero, como en la búsqueda lineal
+        for (AttributeTypeValueRow v : attributeTypeValueRepository.findAllRows()) {
+            if (v.getAttributeTypeId() == null || v.getValue() == null) continue;
+            Long typeId = v.getAttributeTypeId();
+            String normalized = AttributeTypeService.normalizarTextos(v.getValue());
+            byType.computeIfAbsent(typeId, id -> new HashMap<>()).putIfAbsent(normalized, v.getValue());
+
+            // Solo los tipos enum participan en la inferencia, igual que findByIsEnum(true)
+            if (Boolean.TRUE.equals(v.getIsEnum())) {
+                byValue.computeIfAbsent(normalized, k -> new TreeSet<>()).add(typeId);
+            }
+        }
+
+        Map<String, List<Long>> enumTypesByValue = new HashMap<>();
+        byValue.forEach((value, ids) -> enumTypesByValue.put(value, List.copyOf(ids)));
+
+        log.debug("Diccionario de enums construido: {} tipos, {} valores distintos", byType.size(), enumTypesByValue.size());
+        return new Snapshot(Collections.unmodifiableMap(byType), Collections.unmodifiableMap(enumTypesByValue));
+    }
+
+    private record Snapshot(Map<Long, Map<String, String>> valuesByType,
+                            Map<String, List<Long>> enumTypesByValue) {
+    }
+}
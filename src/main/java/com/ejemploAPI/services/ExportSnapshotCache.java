@@ -0,0 +1,185 @@
+package com.ejemploAPI.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* Copia en memoria de la exportación completa (/api/config/export)
+   Guarda el JSON ya serializado, opcionalmente también comprimido (gzip y zstd, si supera el umbral de
+   TransportCompression), y un ETag fuerte (SHA-256 del JSON)
+   Smile y CBOR se generan la primera vez que se piden, convirtiendo el JSON guardado sin volver a la base de datos,
+   y llevan su propio ETag (el del JSON con el formato como sufijo)
+   Cualquier cambio en Config, Attribute, AttributeType o en los valores de los enums llama a invalidate: la copia
+   se descarta y se reconstruye en segundo plano al terminar la transacción. Si alguien la pide antes, la construye él
+   Cada invalidación sube la generación y una copia solo vale para la generación en la que se empezó a leer, así no
+   se sirve una copia leída antes de que se confirmase un cambio
+ */
+@Component
+public class ExportSnapshotCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportSnapshotCache.class);
+
+    // encoded: codificación (gzip, zstd) => cuerpo comprimido; binary: formato binario => cuerpo, se rellena bajo demanda
+    public record Snapshot(byte[] json, Map<String, byte[]> encoded, String etag, long generation,
+                           Map<ConfigFormat, byte[]> binary) {
+
+        public String etag(ConfigFormat format) {
+            if (!format.isBinary()) return etag;
+            return etag.substring(0, etag.length() - 1) + "-" + format.name().toLowerCase(Locale.ROOT) + "\"";
+        }
+    }
+
+    private final ConfigExportService configExportService;
+    private final TaskExecutor exportSnapshotExecutor;
+    private final TransportCompression transportCompression;
+    private final boolean precompress;
+
+    private final JsonFactory jsonFactory = ConfigFormat.JSON.newObjectMapper().getFactory();
+    private final Map<ConfigFormat, JsonFactory> binaryFactories = new EnumMap<>(ConfigFormat.class);
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public ExportSnapshotCache(ConfigExportService configExportService,
+                               @Qualifier("exportSnapshotExecutor") TaskExecutor exportSnapshotExecutor,
+                               TransportCompression transportCompression,
+                               @Value("${config.export.snapshot.precompress:true}") boolean precompress) {
+        this.configExportService = configExportService;
+        this.exportSnapshotExecutor = exportSnapshotExecutor;
+        this.transportCompression = transportCompression;
+        this.precompress = precompress;
+        for (ConfigFormat format : ConfigFormat.values()) {
+            if (format.isBinary()) binaryFactories.put(format, format.newObjectMapper().getFactory());
+        }
+    }
+
+    // La copia vigente, construyéndola si no la hay
+    public Snapshot get() throws IOException {
+        Snapshot current = current();
+        return current != null ? current : rebuild();
+    }
+
+    // ETag de la copia vigente en ese formato sin tocar la base de datos, null si no hay copia
+    public String currentEtag(ConfigFormat format) {
+        Snapshot current = current();
+        return current != null ? current.etag(format) : null;
+    }
+
+    /* Cuerpo de la copia en el formato indicado
+       Los binarios se obtienen copiando los eventos del JSON a un generador Smile/CBOR: los números salen
+       del JSON con el mismo tipo (int, long, double) con el que los escribió la exportación
+     */
+    public byte[] body(Snapshot snapshot, ConfigFormat format) {
+        if (!format.isBinary()) return snapshot.json();
+        return snapshot.binary().computeIfAbsent(format, f -> transcode(snapshot.json(), f));
+    }
+
+    /* Descarta la copia
+       Si hay una transacción en curso se vuelve a descartar al terminarla, y es entonces cuando se reconstruye,
+       para que la copia nueva lea los cambios ya confirmados
+     */
+    public void invalidate() {
+        discard();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    discard();
+                    scheduleRebuild();
+                }
+            });
+        } else {
+            scheduleRebuild();
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        return current != null && current.generation() == generation.get() ? current : null;
+    }
+
+    private void discard() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    // El pool tiene un hilo y sitio para una sola tarea en cola: varias invalidaciones seguidas se agrupan en una
+    private void scheduleRebuild() {
+        exportSnapshotExecutor.execute(() -> {
+            try {
+                rebuild();
+            } catch (IOException | RuntimeException e) {
+                log.warn("No se pudo reconstruir la copia de la exportación: {}", e.getMessage());
+            }
+        });
+    }
+
+    private synchronized Snapshot rebuild() throws IOException {
+        Snapshot current = current();
+        if (current != null) return current;
+
+        long gen = generation.get();
+        long start = System.currentTimeMillis();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int nodos = configExportService.writeJson(out, true);
+        byte[] json = out.toByteArray();
+        Snapshot built = new Snapshot(json, precompress ? encodeAll(json) : Map.of(), etagOf(json), gen,
+                new ConcurrentHashMap<>());
+        snapshot = built;
+        log.debug("Copia de la exportación construida en {} ms: {} nodos, {} bytes, ETag {}",
+                System.currentTimeMillis() - start, nodos, json.length, built.etag());
+        return built;
+    }
+
+    private Map<String, byte[]> encodeAll(byte[] json) throws IOException {
+        Map<String, byte[]> encoded = new HashMap<>();
+        for (String coding : List.of(TransportCompression.GZIP, TransportCompression.ZSTD)) {
+            byte[] body = transportCompression.encode(json, coding);
+            if (body != null) encoded.put(coding, body);
+        }
+        return Map.copyOf(encoded);
+    }
+
+    private byte[] transcode(byte[] json, ConfigFormat format) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 2);
+        try (JsonParser parser = jsonFactory.createParser(json);
+             JsonGenerator gen = binaryFactories.get(format).createGenerator(out)) {
+            parser.nextToken();
+            gen.copyCurrentStructure(parser);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.debug("Copia de la exportación convertida a {}: {} bytes (JSON {} bytes)", format, out.size(), json.length);
+        return out.toByteArray();
+    }
+
+    private static String etagOf(byte[] data) {
+        try {
+            return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
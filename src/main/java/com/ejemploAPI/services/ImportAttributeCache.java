@@ -0,0 +1,80 @@
+package com.ejemploAPI.services;
+
+import com.ejemploAPI.models.Attribute;
+import com.ejemploAPI.models.AttributeType;
+
+import java.util.*;
+
+/* Caché de Attribute y AttributeType de una importación
+   Se carga en bloque al empezar (atributos por nombre y todos los tipos) para que las búsquedas durante
+   la importación no vayan a base de datos. Los atributos nuevos o modificados se acumulan y se guardan
+   juntos con saveAll
+   Vive dentro del ImportContext y no se comparte entre importaciones
+ */
+public class ImportAttributeCache {
+
+    private record TypeKey(String type, boolean isList, boolean isEnum) {
+    }
+
+    // Un valor null indica que ya se buscó y el atributo no existe
+    private final Map<String, Attribute> attributesByName = new HashMap<>();
+    private final Map<TypeKey, AttributeType> typesByKey = new HashMap<>();
+    private final SortedMap<Long, AttributeType> typesById = new TreeMap<>();
+
+    // Attribute no tiene equals por identidad (@Data), así que se usa un set de identidad
+    private final Set<Attribute> pendingAttributes = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    boolean isAttributeLoaded(String name) {
+        return attributesByName.containsKey(name);
+    }
+
+    Attribute getAttribute(String name) {
+        return attributesByName.get(name);
+    }
+
+    void putAttribute(String name, Attribute attribute) {
+        attributesByName.put(name, attribute);
+    }
+
+    // Con el orden por id, ante tipos repetidos gana el de menor id, como en la consulta por tipo
+    void putType(AttributeType type) {
+        if (type == null || type.getId() == null) return;
+        typesById.put(type.getId(), type);
+        typesByKey.putIfAbsent(keyOf(type.getType(), type.getIsList(), type.getIsEnum()), type);
+    }
+
+    AttributeType getType(String type, Boolean isList, Boolean isEnum) {
+        return typesByKey.get(keyOf(type, isList, isEnum));
+    }
+
+    AttributeType getTypeById(Long id) {
+        return id != null ? typesById.get(id) : null;
+    }
+
+    // Primer tipo enum por id, equivalente a findByIsEnum(true).get(0)
+    AttributeType getFirstEnumType() {
+        for (AttributeType type : typesById.values()) {
+            if (Boolean.TRUE.equals(type.getIsEnum())) return type;
+        }
+        return null;
+    }
+
+    void markPending(Attribute attribute) {
+        pendingAttributes.add(attribute);
+    }
+
+    boolean hasPending() {
+        return !pendingAttributes.isEmpty();
+    }
+
+    // Devuelve los atributos pendientes de guardar y vacía la lista
+    List<Attribute> drainPending() {
+        List<Attribute> pending = new ArrayList<>(pendingAttributes);
+        pendingAttributes.clear();
+        return pending;
+    }
+
+    private static TypeKey keyOf(String type, Boolean isList, Boolean isEnum) {
+        return new TypeKey(type, Boolean.TRUE.equals(isList), Boolean.TRUE.equals(isEnum));
+    }
+}
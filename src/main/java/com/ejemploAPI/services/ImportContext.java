@@ -0,0 +1,84 @@
+package com.ejemploAPI.services;
+
+import com.ejemploAPI.dtos.ImportResultDTO;
+import com.ejemploAPI.models.Config;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/* Estado de una importación JSON en curso
+   Agrupa los contadores de nodos y las filas pendientes de insertar por lotes
+   Se crea una instancia por importación y no se comparte entre importaciones. En la importación en paralelo
+   cada tarea tiene la suya (fork) y solo comparten los contadores, que por eso son atómicos
+ */
+@Getter
+public class ImportContext {
+
+    private final AtomicInteger nodosProcesados;
+    private final AtomicInteger nodosCreados;
+    private final AtomicInteger nodosEliminados;
+    // Solo en la importación incremental: nodos existentes cuyo valor ha cambiado
+    private final AtomicInteger nodosActualizados;
+    private final long startTime;
+
+    // true en las tareas de la importación en paralelo: los atributos y tipos se dan de alta con el AttributeRegistry
+    private final boolean concurrent;
+
+    // Hojas encoladas para el ConfigBatchWriter
+    private final List<Config> pendingInserts = new ArrayList<>();
+
+    // Ids de los padres de las hojas encoladas: un hermano que se guarde directamente tiene que esperar al lote
+    private final Set<Long> pendingParentIds = new HashSet<>();
+
+    // Hijos ya consultados de cada padre, por id de atributo (clave null => nodos raíz)
+    private final Map<Long, Map<Long, Config>> siblingsByParent = new HashMap<>();
+
+    // Atributos y tipos de la importación
+    private final ImportAttributeCache attributeCache = new ImportAttributeCache();
+
+    // Solo en la importación en streaming: nodos procesados a partir de los cuales se vacía el contexto de persistencia
+    @Setter
+    private int nextClearAt;
+
+    public ImportContext() {
+        this.nodosProcesados = new AtomicInteger(0);
+        this.nodosCreados = new AtomicInteger(0);
+        this.nodosEliminados = new AtomicInteger(0);
+        this.nodosActualizados = new AtomicInteger(0);
+        this.startTime = System.currentTimeMillis();
+        this.concurrent = false;
+    }
+
+    private ImportContext(ImportContext parent) {
+        this.nodosProcesados = parent.nodosProcesados;
+        this.nodosCreados = parent.nodosCreados;
+        this.nodosEliminados = parent.nodosEliminados;
+        this.nodosActualizados = parent.nodosActualizados;
+        this.startTime = parent.startTime;
+        this.concurrent = true;
+    }
+
+    // Contexto de una tarea de la importación en paralelo: comparte los contadores, no la caché, los hermanos ni el lote
+    public ImportContext fork() {
+        return new ImportContext(this);
+    }
+
+    public ImportResultDTO toResult() {
+        ImportResultDTO result = new ImportResultDTO();
+        result.setMensaje("JSON importado correctamente");
+        result.setNodosProcesados(nodosProcesados.get());
+        result.setNodosCreados(nodosCreados.get());
+        result.setNodosActualizados(nodosActualizados.get());
+        result.setNodosEliminados(nodosEliminados.get());
+        result.setTiempoMs(System.currentTimeMillis() - startTime);
+        return result;
+    }
+
+}
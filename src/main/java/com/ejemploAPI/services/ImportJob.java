@@ -0,0 +1,59 @@
+package com.ejemploAPI.services;
+
+import com.ejemploAPI.dtos.ImportResultDTO;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/* Trabajo de importación en segundo plano
+   Se guarda en memoria en el ImportJobService. Mientras está en curso expone el ImportContext de la
+   importación, así los contadores de nodos se pueden consultar en vivo
+ */
+@Getter
+public class ImportJob {
+
+    public enum Estado { EN_COLA, EN_CURSO, COMPLETADO, ERROR }
+
+    private final String id;
+    private final Instant creado = Instant.now();
+
+    private volatile Estado estado = Estado.EN_COLA;
+    // null hasta que empieza la importación
+    private volatile ImportContext context;
+    private volatile ImportResultDTO resultado;
+    private volatile String error;
+    private volatile Instant finalizado;
+
+    public ImportJob(String id) {
+        this.id = id;
+    }
+
+    void start(ImportContext context) {
+        this.context = context;
+        this.estado = Estado.EN_CURSO;
+    }
+
+    void complete(ImportResultDTO resultado) {
+        this.resultado = resultado;
+        this.finalizado = Instant.now();
+        this.estado = Estado.COMPLETADO;
+    }
+
+    void fail(String error) {
+        this.error = error;
+        this.finalizado = Instant.now();
+        this.estado = Estado.ERROR;
+    }
+
+    public boolean isFinished() {
+        return estado == Estado.COMPLETADO || estado == Estado.ERROR;
+    }
+
+    // Tiempo de importación: 0 en cola, el que lleva si está en curso y el total si ha terminado
+    public long getTiempoMs() {
+        ImportContext ctx = context;
+        if (ctx == null) return 0;
+        long fin = finalizado != null ? finalizado.toEpochMilli() : System.currentTimeMillis();
+        return fin - ctx.getStartTime();
+    }
+}
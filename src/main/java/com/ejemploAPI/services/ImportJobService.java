@@ -0,0 +1,91 @@
+package com.ejemploAPI.services;
+
+import com.ejemploAPI.dtos.ImportResultDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/* Importaciones en segundo plano
+   Cada trabajo se ejecuta en el importJobExecutor con los mismos modos que POST /api/config/import
+   Los trabajos se guardan en memoria; los terminados se descartan pasado el tiempo de retención, al encolar
+   uno nuevo o al consultar cualquiera
+ */
+@Service
+public class ImportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportJobService.class);
+
+    private final ConfigService configService;
+    private final AsyncTaskExecutor importJobExecutor;
+    private final Duration retention;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobService(ConfigService configService,
+                            @Qualifier("importJobExecutor") AsyncTaskExecutor importJobExecutor,
+                            @Value("${config.import.jobs.retention-minutes:60}") long retentionMinutes) {
+        this.configService = configService;
+        this.importJobExecutor = importJobExecutor;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+    }
+
+    // Encola la importación y devuelve el trabajo enseguida. Lanza TaskRejectedException si la cola está llena
+    public ImportJob submit(String rawJson, boolean incremental, boolean parallel) {
+        purgeFinishedJobs();
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString());
+        jobs.put(job.getId(), job);
+        try {
+            importJobExecutor.execute(() -> run(job, rawJson, incremental, parallel));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            log.warn("Trabajo de importación rechazado: cola llena");
+            throw e;
+        }
+        log.info("Trabajo de importación {} en cola (incremental={}, parallel={})", job.getId(), incremental, parallel);
+        return job;
+    }
+
+    public Optional<ImportJob> findById(String id) {
+        purgeFinishedJobs();
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    private void run(ImportJob job, String rawJson, boolean incremental, boolean parallel) {
+        ImportContext ctx = new ImportContext();
+        job.start(ctx);
+        log.info("Inicio del trabajo de importación {}", job.getId());
+        try {
+            ImportResultDTO result;
+            if (incremental) result = configService.importJsonIncremental(rawJson, ctx);
+            else if (parallel) result = configService.importJsonParallel(rawJson, ctx);
+            else result = configService.importJson(rawJson, ctx);
+            job.complete(result);
+            log.info("Trabajo de importación {} completado en {} ms", job.getId(), result.getTiempoMs());
+        } catch (RuntimeException e) {
+            log.warn("Error en el trabajo de importación {}: {}", job.getId(), e.getMessage());
+            job.fail(e.getMessage());
+        } catch (Error e) {
+            // Un Error (p.ej. OutOfMemoryError) tampoco puede dejar el trabajo EN_CURSO: se marca y se propaga
+            log.error("Error grave en el trabajo de importación {}", job.getId(), e);
+            job.fail(e.toString());
+            throw e;
+        }
+    }
+
+    private void purgeFinishedJobs() {
+        Instant limite = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinalizado().isBefore(limite));
+    }
+}
@@ -0,0 +1,139 @@
+package com.ejemploAPI.services;
+
+import com.ejemploAPI.dtos.AttributeDTO;
+import com.ejemploAPI.dtos.AttributeTypeDTO;
+import com.ejemploAPI.dtos.AttributeTypeValueDTO;
+import com.ejemploAPI.dtos.ConfigDTO;
+import com.ejemploAPI.dtos.KeysetPageDTO;
+import com.ejemploAPI.mappers.AttributeMapper;
+import com.ejemploAPI.mappers.AttributeTypeMapper;
+import com.ejemploAPI.mappers.AttributeTypeValueMapper;
+import com.ejemploAPI.mappers.ConfigMapper;
+import com.ejemploAPI.models.AttributeType;
+import com.ejemploAPI.repositories.AttributeRepository;
+import com.ejemploAPI.repositories.AttributeTypeRepository;
+import com.ejemploAPI.repositories.AttributeTypeValueRepository;
+import com.ejemploAPI.repositories.ConfigRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/* Listados por páginas y en streaming de Config, Attribute, AttributeType y AttributeTypeValue
+   Las páginas son por keyset sobre el id: el cliente pasa como afterId el nextAfterId de la página anterior
+   y cada página es un rango sobre la clave primaria, igual de rápido al principio que al final de la tabla
+   El streaming escribe NDJSON (un objeto JSON por línea) leyendo un Stream de JPA con fetch size,
+   así el servidor no guarda la tabla en memoria. Tiene que ejecutarse dentro de la transacción de solo lectura
+   Los cuatro controladores lo exponen igual: GET .../page?afterId=&limit= devuelve un KeysetPageDTO
+   (limit se ajusta a 1..MAX_PAGE_SIZE) y GET .../stream el NDJSON con todas las filas en orden de id
+ */
+@Service
+@Transactional(readOnly = true)
+public class ListingService {
+
+    private static final Logger log = LoggerFactory.getLogger(ListingService.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final ConfigRepository configRepository;
+    private final AttributeRepository attributeRepository;
+    private final AttributeTypeRepository attributeTypeRepository;
+    private final AttributeTypeValueRepository attributeTypeValueRepository;
+    private final EntityManager entityManager;
+    // Sin flush por objeto: el OutputStream de la respuesta ya vacía su buffer cuando se llena
+    private final ObjectMapper objectMapper = new ObjectMapper().disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    public ListingService(ConfigRepository configRepository, AttributeRepository attributeRepository,
+                          AttributeTypeRepository attributeTypeRepository,
+                          AttributeTypeValueRepository attributeTypeValueRepository, EntityManager entityManager) {
+        this.configRepository = configRepository;
+        this.attributeRepository = attributeRepository;
+        this.attributeTypeRepository = attributeTypeRepository;
+        this.attributeTypeValueRepository = attributeTypeValueRepository;
+        this.entityManager = entityManager;
+    }
+
+    public KeysetPageDTO<ConfigDTO> configPage(Long afterId, int limit) {
+        return page(afterId, limit, configRepository::findRowsAfter, ConfigMapper::toDTO, ConfigDTO::getId);
+    }
+
+    public KeysetPageDTO<AttributeDTO> attributePage(Long afterId, int limit) {
+        return page(afterId, limit, attributeRepository::findRowsAfter, AttributeMapper::toDTO, AttributeDTO::getId);
+    }
+
+    public KeysetPageDTO<AttributeTypeDTO> attributeTypePage(Long afterId, int limit) {
+        return page(afterId, limit, attributeTypeRepository::findByIdGreaterThanOrderByIdAsc,
+                AttributeTypeMapper::toDTO, AttributeTypeDTO::getId);
+    }
+
+    public KeysetPageDTO<AttributeTypeValueDTO> attributeTypeValuePage(Long afterId, int limit) {
+        return page(afterId, limit, attributeTypeValueRepository::findRowsAfter,
+                AttributeTypeValueMapper::toDTO, AttributeTypeValueDTO::getId);
+    }
+
+    // Los métodos write* no cierran el OutputStream y devuelven el número de líneas escritas
+    public int writeConfigs(OutputStream out) throws IOException {
+        return writeNdjson(configRepository.streamAllRows(), ConfigMapper::toDTO, out);
+    }
+
+    public int writeAttributes(OutputStream out) throws IOException {
+        return writeNdjson(attributeRepository.streamAllRows(), AttributeMapper::toDTO, out);
+    }
+
+    // AttributeType no tiene relaciones y se lee como entidad: se saca del contexto de persistencia tras escribirla
+    public int writeAttributeTypes(OutputStream out) throws IOException {
+        return writeNdjson(attributeTypeRepository.streamAllByOrderByIdAsc(), (AttributeType type) -> {
+            entityManager.detach(type);
+            return AttributeTypeMapper.toDTO(type);
+        }, out);
+    }
+
+    public int writeAttributeTypeValues(OutputStream out) throws IOException {
+        return writeNdjson(attributeTypeValueRepository.streamAllRows(), AttributeTypeValueMapper::toDTO, out);
+    }
+
+    /* Se pide una fila más de las necesarias para saber si hay página siguiente sin hacer un count
+     */
+    private <R, T> KeysetPageDTO<T> page(Long afterId, int limit, BiFunction<Long, Limit, List<R>> query,
+                                         Function<R, T> mapper, Function<T, Long> idOf) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<R> rows = query.apply(afterId != null ? afterId : 0L, Limit.of(size + 1));
+        boolean hasMore = rows.size() > size;
+
+        KeysetPageDTO<T> page = new KeysetPageDTO<>();
+        page.setItems(rows.stream().limit(size).map(mapper).toList());
+        page.setNextAfterId(hasMore ? idOf.apply(page.getItems().get(size - 1)) : null);
+        log.debug("Página después de id {}: {} elementos, siguiente afterId {}", afterId, page.getItems().size(), page.getNextAfterId());
+        return page;
+    }
+
+    private <R> int writeNdjson(Stream<R> rows, Function<R, ?> mapper, OutputStream out) throws IOException {
+        int lines = 0;
+        try (rows; JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Cada objeto termina en su propio salto de línea, sin separador entre raíces
+            gen.setRootValueSeparator(null);
+            Iterator<R> it = rows.iterator();
+            while (it.hasNext()) {
+                objectMapper.writeValue(gen, mapper.apply(it.next()));
+                gen.writeRaw('\n');
+                lines++;
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,80 @@
+package com.ejemploAPI.services;
+
+import com.ejemploAPI.config.CacheConfig;
+import com.ejemploAPI.dtos.AttributeDTO;
+import com.ejemploAPI.dtos.AttributeTypeDTO;
+import com.ejemploAPI.dtos.ConfigDTO;
+import com.ejemploAPI.mappers.AttributeMapper;
+import com.ejemploAPI.mappers.AttributeTypeMapper;
+import com.ejemploAPI.mappers.ConfigMapper;
+import com.ejemploAPI.repositories.AttributeRepository;
+import com.ejemploAPI.repositories.AttributeTypeRepository;
+import com.ejemploAPI.repositories.ConfigRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/* Lecturas por id a través de caché (ver CacheConfig)
+   Se cachean los DTOs, no las entidades, para que nadie modifique un objeto compartido ni arrastre
+   relaciones fuera de su transacción. Los ids que no existen no se cachean
+   Quien modifica o borra filas llama al evict correspondiente con los ids afectados
+ */
+@Service
+@Transactional(readOnly = true)
+public class LookupCache {
+
+    private final ConfigRepository configRepository;
+    private final AttributeRepository attributeRepository;
+    private final AttributeTypeRepository attributeTypeRepository;
+    private final CacheManager cacheManager;
+
+    public LookupCache(ConfigRepository configRepository, AttributeRepository attributeRepository,
+                       AttributeTypeRepository attributeTypeRepository, CacheManager cacheManager) {
+        this.configRepository = configRepository;
+        this.attributeRepository = attributeRepository;
+        this.attributeTypeRepository = attributeTypeRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    // null si no existe
+    @Cacheable(cacheNames = CacheConfig.CONFIGS, key = "#id", unless = "#result == null")
+    public ConfigDTO findConfig(Long id) {
+        return configRepository.findRowById(id).map(ConfigMapper::toDTO).orElse(null);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.ATTRIBUTES, key = "#id", unless = "#result == null")
+    public AttributeDTO findAttribute(Long id) {
+        return attributeRepository.findRowById(id).map(AttributeMapper::toDTO).orElse(null);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.ATTRIBUTE_TYPES, key = "#id", unless = "#result == null")
+    public AttributeTypeDTO findAttributeType(Long id) {
+        return attributeTypeRepository.findById(id).map(AttributeTypeMapper::toDTO).orElse(null);
+    }
+
+    public void evictConfig(Long id) {
+        evict(CacheConfig.CONFIGS, id);
+    }
+
+    public void evictConfigs(Collection<Long> ids) {
+        Cache cache = cacheManager.getCache(CacheConfig.CONFIGS);
+        if (cache != null) ids.forEach(cache::evict);
+    }
+
+    public void evictAttribute(Long id) {
+        evict(CacheConfig.ATTRIBUTES, id);
+    }
+
+    public void evictAttributeType(Long id) {
+        evict(CacheConfig.ATTRIBUTE_TYPES, id);
+    }
+
+    private void evict(String cacheName, Long id) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && id != null) cache.evict(id);
+    }
+}
@@ -0,0 +1,277 @@
+package com.ejemploAPI.services;
+
+import com.ejemploAPI.config.exceptions.InvalidJsonFormatException;
+import com.ejemploAPI.config.exceptions.PayloadTooLargeException;
+import com.ejemploAPI.config.exceptions.UnsupportedContentEncodingException;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/* Compresión gzip y zstd del JSON que entra (importación, Content-Encoding) y que sale (exportación, Accept-Encoding)
+   Todo son streams: el parser lee del descompresor y el generador escribe en el compresor, sin tener el cuerpo
+   completo en memoria. Por debajo de min-size bytes no compensa comprimir y la respuesta sale tal cual
+   Un cuerpo comprimido no puede pasar de max-decoded-size una vez descomprimido (413) y si está corrupto o
+   truncado la petición falla con 400, como un JSON mal formado
+ */
+@Component
+public class TransportCompression {
+
+    public static final String GZIP = "gzip";
+    public static final String ZSTD = "zstd";
+    public static final String SUPPORTED_CODINGS = ZSTD + ", " + GZIP;
+
+    private final int minSize;
+    private final int zstdLevel;
+    private final long maxDecodedSize;
+
+    public TransportCompression(@Value("${config.transport.compression.min-size:2048}") int minSize,
+                                @Value("${config.transport.compression.zstd-level:3}") int zstdLevel,
+                                @Value("${config.transport.compression.max-decoded-size:256MB}") DataSize maxDecodedSize) {
+        this.minSize = minSize;
+        this.zstdLevel = zstdLevel;
+        this.maxDecodedSize = maxDecodedSize.toBytes();
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    // Cuerpo de la petición según su Content-Encoding (null o identity = sin comprimir)
+    public InputStream decode(InputStream body, String contentEncoding) throws IOException {
+        String coding = contentEncoding != null ? contentEncoding.trim().toLowerCase(Locale.ROOT) : "";
+        return switch (coding) {
+            case "", "identity" -> body;
+            case GZIP, "x-gzip" -> new DecodedInputStream(gunzip(body), coding, maxDecodedSize);
+            case ZSTD -> new DecodedInputStream(new ZstdInputStream(body), coding, maxDecodedSize);
+            default -> throw new UnsupportedContentEncodingException(contentEncoding);
+        };
+    }
+
+    /* Codificación que se usará para la respuesta, null si el cliente no acepta ninguna de las nuestras
+       El q de una codificación nombrada manda sobre el de "*": "gzip;q=0, *" no acepta gzip pero sí zstd
+       Gana la de mayor q y, a igualdad, zstd
+     */
+    public String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) return null;
+        Double zstd = null;
+        Double gzip = null;
+        Double wildcard = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            double q = quality(tokens);
+            switch (coding) {
+                case ZSTD -> zstd = q;
+                case GZIP, "x-gzip" -> gzip = gzip != null ? Math.max(gzip, q) : q;
+                case "*" -> wildcard = q;
+                default -> {
+                }
+            }
+        }
+        double zstdQ = zstd != null ? zstd : wildcard != null ? wildcard : 0;
+        double gzipQ = gzip != null ? gzip : wildcard != null ? wildcard : 0;
+        if (zstdQ > 0 && zstdQ >= gzipQ) return ZSTD;
+        return gzipQ > 0 ? GZIP : null;
+    }
+
+    // Comprime un cuerpo ya completo; null si es más pequeño que el umbral
+    public byte[] encode(byte[] data, String coding) throws IOException {
+        if (data.length < minSize) return null;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (OutputStream encoder = encoder(out, coding)) {
+            encoder.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    /* Stream de la respuesta que decide la compresión según lo que se escribe
+       Acumula hasta min-size bytes: si se llega, llama a onCompress (para poner Content-Encoding mientras la
+       respuesta no se ha enviado) y comprime el resto al vuelo; si el cuerpo termina antes, sale sin comprimir
+       Al cerrarlo se cierra el compresor, no el stream de la respuesta
+     */
+    public OutputStream encodeAboveThreshold(OutputStream out, String coding, Consumer<String> onCompress) {
+        if (coding == null) return new NonClosingOutputStream(out);
+        return new ThresholdOutputStream(out, coding, onCompress);
+    }
+
+    // GZIPInputStream lee la cabecera al crearse: si no es gzip (o está vacío) es un error del cliente, no del servidor
+    private static InputStream gunzip(InputStream body) throws IOException {
+        try {
+            return new GZIPInputStream(body);
+        } catch (ZipException | EOFException e) {
+            throw new InvalidJsonFormatException("El cuerpo no es gzip válido", e);
+        }
+    }
+
+    private OutputStream encoder(OutputStream out, String coding) throws IOException {
+        return switch (coding) {
+            case GZIP -> new GZIPOutputStream(out, 8192);
+            case ZSTD -> new ZstdOutputStream(out, zstdLevel);
+            default -> throw new IllegalArgumentException("Codificación no soportada: " + coding);
+        };
+    }
+
+    // Valor q de una entrada de Accept-Encoding; 1 si no lo lleva o no se entiende
+    private static double quality(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            String param = tokens[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 1;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /* Salida del descompresor: cuenta los bytes y corta en cuanto se pasa del máximo, así un cuerpo pequeño que
+       se expande a gigas no llega a leerse entero. Los IOException del descompresor (EOFException de un gzip
+       truncado, ZipException, datos zstd corruptos) son errores del cliente y salen como InvalidJsonFormatException
+     */
+    private static class DecodedInputStream extends FilterInputStream {
+
+        private final String coding;
+        private final long maxBytes;
+        private long count;
+
+        DecodedInputStream(InputStream in, String coding, long maxBytes) {
+            super(in);
+            this.coding = coding;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b;
+            try {
+                b = in.read();
+            } catch (IOException e) {
+                throw invalid(e);
+            }
+            if (b >= 0) count(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n;
+            try {
+                n = in.read(b, off, len);
+            } catch (IOException e) {
+                throw invalid(e);
+            }
+            if (n > 0) count(n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Por read para que lo saltado también cuente
+            byte[] buffer = new byte[(int) Math.min(8192, Math.max(n, 1))];
+            long skipped = 0;
+            while (skipped < n) {
+                int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (read < 0) break;
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        private void count(int n) {
+            count += n;
+            if (count > maxBytes) throw new PayloadTooLargeException(maxBytes);
+        }
+
+        private InvalidJsonFormatException invalid(IOException e) {
+            return new InvalidJsonFormatException("El cuerpo no es " + coding + " válido: " + e.getMessage(), e);
+        }
+    }
+
+    private class ThresholdOutputStream extends OutputStream {
+
+        private final OutputStream target;
+        private final String coding;
+        private final Consumer<String> onCompress;
+        private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        private OutputStream delegate;
+
+        ThresholdOutputStream(OutputStream target, String coding, Consumer<String> onCompress) {
+            this.target = target;
+            this.coding = coding;
+            this.onCompress = onCompress;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (delegate != null) {
+                delegate.write(b, off, len);
+                return;
+            }
+            pending.write(b, off, len);
+            if (pending.size() >= minSize) decide(true);
+        }
+
+        // Mientras no se ha decidido no se envía nada: un flush antes de tiempo dejaría la respuesta sin cabecera
+        @Override
+        public void flush() throws IOException {
+            if (delegate != null) delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (delegate == null) decide(false);
+            delegate.close();
+        }
+
+        private void decide(boolean compress) throws IOException {
+            OutputStream body = new NonClosingOutputStream(target);
+            if (compress) {
+                onCompress.accept(coding);
+                body = encoder(body, coding);
+            }
+            pending.writeTo(body);
+            pending = null;
+            delegate = body;
+        }
+    }
+
+    // Cerrarlo solo vacía el buffer: el stream de la respuesta lo cierra el servidor
+    private static class NonClosingOutputStream extends FilterOutputStream {
+
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+}
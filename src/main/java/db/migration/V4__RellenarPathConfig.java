@@ -0,0 +1,94 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/* Columna config.path: la crea si falta, la ensancha y rellena las filas que la tienen a null
+   Las bases de datos anteriores a Flyway se marcan en V1 y no lo ejecutan, y en ellas la columna y su índice
+   los añadía Hibernate con ddl-auto=update. Por eso aquí se comprueba antes de crearlos
+   El path se ensancha a 3072; en MySQL en ascii (solo lleva dígitos y '/') para que quepa en el límite de
+   3072 bytes de la clave del índice. La longitud va fija y no sale de Config: una migración aplicada no puede
+   cambiar, y si algún día se ensancha otra vez será con una migración nueva
+   El relleno va por niveles: primero los nodos raíz y después, en cada pasada, los hijos de los nodos que ya
+   tienen path. Cada nivel es una consulta y un UPDATE por lotes
+ */
+public class V4__RellenarPathConfig extends BaseJavaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(V4__RellenarPathConfig.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final int PATH_LENGTH = 3072;
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+        boolean mysql = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+
+        if (!hasColumn(connection)) {
+            jdbcTemplate.execute("ALTER TABLE config ADD COLUMN path VARCHAR(" + PATH_LENGTH + ")");
+        }
+        jdbcTemplate.execute(mysql
+                ? "ALTER TABLE config MODIFY path VARCHAR(" + PATH_LENGTH + ") CHARACTER SET ascii"
+                : "ALTER TABLE config ALTER COLUMN path SET DATA TYPE VARCHAR(" + PATH_LENGTH + ")");
+        if (!hasIndex(connection)) {
+            jdbcTemplate.execute("CREATE INDEX idx_config_path ON config (path)");
+        }
+
+        int total = jdbcTemplate.update("UPDATE config SET path = '/' WHERE parent IS NULL AND path IS NULL");
+
+        int nivel = 0;
+        while (true) {
+            List<Object[]> pendientes = jdbcTemplate.query(
+                    "SELECT c.id, p.path, p.id FROM config c JOIN config p ON p.id = c.parent "
+                            + "WHERE c.path IS NULL AND p.path IS NOT NULL",
+                    (rs, rowNum) -> new Object[]{rs.getString(2) + rs.getLong(3) + "/", rs.getLong(1)});
+            if (pendientes.isEmpty()) break;
+
+            jdbcTemplate.batchUpdate("UPDATE config SET path = ? WHERE id = ?", pendientes, BATCH_SIZE,
+                    (ps, row) -> {
+                        ps.setString(1, (String) row[0]);
+                        ps.setLong(2, (Long) row[1]);
+                    });
+            total += pendientes.size();
+            nivel++;
+        }
+
+        if (total > 0) {
+            log.info("V4: path calculado para {} Config en {} niveles", total, nivel + 1);
+        }
+
+        Integer sinPath = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM config WHERE path IS NULL", Integer.class);
+        if (sinPath != null && sinPath > 0) {
+            log.warn("V4: {} Config sin path (padre inexistente o ciclo)", sinPath);
+        }
+    }
+
+    private static boolean hasColumn(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, "config", "path")) {
+            return columns.next();
+        }
+    }
+
+    private static boolean hasIndex(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), null, "config", false, false)) {
+            while (indexes.next()) {
+                if ("idx_config_path".equalsIgnoreCase(indexes.getString("INDEX_NAME"))) return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+-- Esquema base de la API, equivalente al que generaba Hibernate con ddl-auto=update
+-- Las bases de datos que ya existían se marcan en esta versión (baseline-on-migrate) y no la ejecutan
+
+CREATE TABLE IF NOT EXISTS attribute_type (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    is_enum BIT,
+    is_list BIT,
+    type VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS attribute (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255),
+    attribute_type_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_attribute_attribute_type FOREIGN KEY (attribute_type_id) REFERENCES attribute_type (id)
+);
+
+CREATE TABLE IF NOT EXISTS attribute_type_value (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    attribute_type_id BIGINT,
+    `value` VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_attribute_type_value_attribute_type FOREIGN KEY (attribute_type_id) REFERENCES attribute_type (id)
+);
+
+CREATE TABLE IF NOT EXISTS config (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    default_value VARCHAR(255),
+    descripcion VARCHAR(255),
+    attribute_id BIGINT,
+    parent BIGINT,
+    application_node VARCHAR(255),
+    is_custom BIT,
+    path VARCHAR(512),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_config_attribute FOREIGN KEY (attribute_id) REFERENCES attribute (id),
+    CONSTRAINT fk_config_parent FOREIGN KEY (parent) REFERENCES config (id)
+);
+
+CREATE INDEX idx_config_path ON config (path);
@@ -0,0 +1,16 @@
+-- Índices para las consultas más frecuentes de los repositorios
+
+-- ConfigRepository.findByParentIdOrderByIdAsc: hijos de un padre en orden de id
+CREATE INDEX idx_config_parent_id ON config (parent, id);
+
+-- ConfigRepository.findFirstByAttributeIdAndParentIdAndDefaultValue
+CREATE INDEX idx_config_attribute_parent ON config (attribute_id, parent);
+
+-- AttributeRepository.findByName / findAllByNameIn: el nombre identifica al atributo
+CREATE UNIQUE INDEX uk_attribute_name ON attribute (name);
+
+-- AttributeTypeRepository.findByTypeAndIsListAndIsEnum
+CREATE INDEX idx_attribute_type_type_list_enum ON attribute_type (type, is_list, is_enum);
+
+-- AttributeTypeValueRepository.findFirstByAttributeTypeIdAndValue
+CREATE INDEX idx_attribute_type_value_type_value ON attribute_type_value (attribute_type_id, `value`);
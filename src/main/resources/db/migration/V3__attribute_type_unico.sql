@@ -0,0 +1,4 @@
+-- Un AttributeType por (type, is_list, is_enum): la importación en paralelo se apoya en este índice
+-- para detectar que dos tareas han creado el mismo tipo a la vez
+ALTER TABLE attribute_type DROP INDEX idx_attribute_type_type_list_enum;
+CREATE UNIQUE INDEX uk_attribute_type_type_list_enum ON attribute_type (type, is_list, is_enum);
@@ -0,0 +1,67 @@
+package com.ejemploAPI.benchmark;
+
+import com.ejemploAPI.EjemploApiApplication;
+import com.ejemploAPI.dtos.ImportResultDTO;
+import com.ejemploAPI.services.ConfigService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/* Compara la importación con las hojas insertadas por lotes (config.import.batch.enabled=true) y una fila por save
+   Cada modo arranca su propia aplicación sobre un H2 en memoria distinto e importa el mismo documento generado;
+   la primera importación crea atributos y tipos y no se mide, las siguientes reemplazan los hijos de cada rama
+   Solo se ejecuta con -Dbenchmark=true y el resultado se escribe en el log:
+       mvn test -Dbenchmark=true -Dtest=BatchInsertBenchmarkTest
+   Parámetros: -Dbenchmark.shape (list-heavy), -Dbenchmark.scale (0.2), -Dbenchmark.iterations (5)
+   Para medir contra MySQL basta con sobreescribir spring.datasource.* (con rewriteBatchedStatements=true)
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BatchInsertBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchInsertBenchmarkTest.class);
+
+    @Test
+    void comparaImportacionConYSinLotes() {
+        ConfigDocumentGenerator.Shape shape = ConfigDocumentGenerator.Shape
+                .preset(System.getProperty("benchmark.shape", "list-heavy"))
+                .scaled(Double.parseDouble(System.getProperty("benchmark.scale", "0.2")));
+        int iterations = Integer.getInteger("benchmark.iterations", 5);
+        String json = ConfigDocumentGenerator.toJson(shape, 42);
+
+        StringBuilder table = new StringBuilder(String.format("%n%-8s %10s %12s %12s",
+                "Lotes", "Nodos", "Media ms", "Nodos/s"));
+        for (boolean batch : new boolean[]{true, false}) {
+            try (ConfigurableApplicationContext context = start(batch)) {
+                ConfigService configService = context.getBean(ConfigService.class);
+                configService.importJson(json);
+
+                int nodos = 0;
+                long start = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    ImportResultDTO result = configService.importJson(json);
+                    nodos = result.getNodosProcesados();
+                }
+                double mediaMs = (System.nanoTime() - start) / 1e6 / iterations;
+                assertThat(nodos).isPositive();
+
+                table.append(String.format("%n%-8s %10d %12.1f %12.0f",
+                        batch ? "sí" : "no", nodos, mediaMs, nodos * 1000 / mediaMs));
+            }
+        }
+        log.info("Importación con y sin inserción por lotes ({}, {} iteraciones):{}", shape, iterations, table);
+    }
+
+    private static ConfigurableApplicationContext start(boolean batch) {
+        return new SpringApplicationBuilder(EjemploApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--config.import.batch.enabled=" + batch,
+                        "--spring.datasource.url=jdbc:h2:mem:batch_" + batch + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false");
+    }
+}
@@ -0,0 +1,120 @@
+package com.ejemploAPI.benchmark;
+
+import com.ejemploAPI.config.StartupDataLoader;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+
+/* Genera documentos JSON de importación con una forma dada, siempre iguales para la misma semilla
+   El documento tiene width claves raíz ("rama_N"); cada rama anida depth niveles ("nivel_N") y cada nivel lleva
+   texto, entero, decimal, booleano y una lista de listLength elementos. enumDensity es la probabilidad de que
+   aparezcan los campos enum (día, color, mes) y de que la lista sea de colores en lugar de números; los valores
+   son los que precarga StartupDataLoader, la mitad en minúsculas para pasar por la normalización
+   Nodos aproximados: width * depth * (8 + listLength)
+   Para documentos del tamaño de producción están las formas DEEP, WIDE y LIST_HEAVY y write, que escribe
+   rama a rama en un OutputStream sin tener el documento entero en memoria
+ */
+public final class ConfigDocumentGenerator {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public record Shape(int width, int depth, int listLength, double enumDensity) {
+
+        // Unos 13.000 nodos en ramas de 60 niveles
+        public static final Shape DEEP = new Shape(20, 60, 3, 0.3);
+        // Unos 110.000 nodos en 5.000 claves raíz de dos niveles
+        public static final Shape WIDE = new Shape(5_000, 2, 3, 0.3);
+        // Unos 100.000 nodos, casi todos items de listas de 500 elementos
+        public static final Shape LIST_HEAVY = new Shape(100, 2, 500, 0.5);
+
+        public Shape {
+            if (width < 1 || depth < 1 || listLength < 0 || enumDensity < 0 || enumDensity > 1) {
+                throw new IllegalArgumentException("Forma de documento inválida: width=" + width + ", depth=" + depth
+                        + ", listLength=" + listLength + ", enumDensity=" + enumDensity);
+            }
+        }
+
+        public static Shape preset(String name) {
+            return switch (name) {
+                case "deep" -> DEEP;
+                case "wide" -> WIDE;
+                case "list-heavy" -> LIST_HEAVY;
+                default -> throw new IllegalArgumentException("Forma de documento desconocida: " + name
+                        + " (deep, wide o list-heavy)");
+            };
+        }
+
+        // Misma forma con el número de claves raíz multiplicado por factor
+        public Shape scaled(double factor) {
+            return new Shape(Math.max(1, (int) Math.round(width * factor)), depth, listLength, enumDensity);
+        }
+    }
+
+    private ConfigDocumentGenerator() {
+    }
+
+    public static Map<String, Object> generate(Shape shape, long seed) {
+        Random random = new Random(seed);
+        Map<String, Object> root = new LinkedHashMap<>();
+        for (int i = 0; i < shape.width(); i++) {
+            root.put("rama_" + i, level(shape, random, i, 1));
+        }
+        return root;
+    }
+
+    public static String toJson(Shape shape, long seed) {
+        try {
+            return objectMapper.writeValueAsString(generate(shape, seed));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /* Escribe el documento en out con las claves raíz rootPrefix + N; con el mismo seed los valores son
+       los mismos que los de generate. Solo hay una rama en memoria a la vez. No cierra out
+     */
+    public static void write(Shape shape, long seed, String rootPrefix, OutputStream out) throws IOException {
+        Random random = new Random(seed);
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            gen.writeStartObject();
+            for (int i = 0; i < shape.width(); i++) {
+                gen.writeFieldName(rootPrefix + i);
+                objectMapper.writeValue(gen, level(shape, random, i, 1));
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    private static Map<String, Object> level(Shape shape, Random random, int branch, int depth) {
+        Map<String, Object> node = new LinkedHashMap<>();
+        node.put("nombre", "Elemento " + branch + "." + depth);
+        node.put("cantidad", random.nextInt(100_000));
+        node.put("importe", Math.round(random.nextDouble() * 100_000) / 100.0);
+        node.put("activo", random.nextBoolean());
+        if (random.nextDouble() < shape.enumDensity()) node.put("día", enumValue(random, StartupDataLoader.DIAS));
+        if (random.nextDouble() < shape.enumDensity()) node.put("color", enumValue(random, StartupDataLoader.COLORES));
+        if (random.nextDouble() < shape.enumDensity()) node.put("mes", enumValue(random, StartupDataLoader.MESES));
+
+        boolean enumList = random.nextDouble() < shape.enumDensity();
+        List<Object> items = new ArrayList<>(shape.listLength());
+        for (int i = 0; i < shape.listLength(); i++) {
+            items.add(enumList ? enumValue(random, StartupDataLoader.COLORES) : random.nextInt(1000));
+        }
+        node.put(enumList ? "colores" : "numeros", items);
+
+        if (depth < shape.depth()) {
+            node.put("nivel_" + (depth + 1), level(shape, random, branch, depth + 1));
+        }
+        return node;
+    }
+
+    private static String enumValue(Random random, List<String> values) {
+        String value = values.get(random.nextInt(values.size()));
+        return random.nextBoolean() ? value : value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ejemploAPI.benchmark;
+
+import com.ejemploAPI.services.ConfigFormat;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/* Compara JSON, Smile y CBOR con un documento de ConfigDocumentGenerator: tamaño, tamaño con gzip y tiempo
+   medio de escritura y lectura
+   Solo se ejecuta con -Dbenchmark=true y el resultado se escribe en el log:
+       mvn test -Dbenchmark=true -Dtest=ExportFormatBenchmarkTest
+   Parámetros: -Dbenchmark.shape (wide), -Dbenchmark.scale (0.4), -Dbenchmark.iterations (50)
+   No arranca Spring ni base de datos: mide solo la codificación
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ExportFormatBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportFormatBenchmarkTest.class);
+
+    @Test
+    void comparaTamanoYTiemposDeLosFormatos() throws IOException {
+        ConfigDocumentGenerator.Shape shape = ConfigDocumentGenerator.Shape
+                .preset(System.getProperty("benchmark.shape", "wide"))
+                .scaled(Double.parseDouble(System.getProperty("benchmark.scale", "0.4")));
+        int iterations = Integer.getInteger("benchmark.iterations", 50);
+        Map<String, Object> document = ConfigDocumentGenerator.generate(shape, 42);
+
+        StringBuilder table = new StringBuilder(String.format("%n%-7s %12s %12s %12s %12s",
+                "Formato", "Bytes", "Bytes gzip", "Escritura ms", "Lectura ms"));
+        JsonNode expected = null;
+        for (ConfigFormat format : ConfigFormat.values()) {
+            ObjectMapper mapper = format.newObjectMapper();
+            byte[] encoded = mapper.writeValueAsBytes(document);
+
+            // Calentamiento para que el JIT compile el parser y el generador antes de medir
+            for (int i = 0; i < iterations; i++) {
+                mapper.writeValueAsBytes(document);
+                mapper.readTree(encoded);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) mapper.writeValueAsBytes(document);
+            double encodeMs = (System.nanoTime() - start) / 1e6 / iterations;
+
+            JsonNode tree = null;
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) tree = mapper.readTree(encoded);
+            double decodeMs = (System.nanoTime() - start) / 1e6 / iterations;
+
+            // Los tres formatos tienen que dar el mismo árbol, con los mismos tipos de nodo
+            if (expected == null) expected = tree;
+            else assertThat(tree).isEqualTo(expected);
+
+            table.append(String.format("%n%-7s %12d %12d %12.2f %12.2f",
+                    format, encoded.length, gzip(encoded).length, encodeMs, decodeMs));
+        }
+        log.info("Comparativa de formatos ({}, {} iteraciones):{}", shape, iterations, table);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,126 @@
+package com.ejemploAPI.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/* ETag de /api/config/export contra la aplicación arrancada: If-None-Match con el ETag vigente da 304, y
+   después de importar, actualizar o borrar el ETag cambia y la respuesta ya trae el cambio
+   La copia se reconstruye en segundo plano al confirmar cada cambio; las lecturas se hacen justo después de la
+   petición que modifica para comprobar que nunca se sirve la copia anterior mientras tanto
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ConfigExportEtagTests {
+
+    private static final String ROOT = "etag_test";
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void ifNoneMatchConElEtagVigenteDevuelve304() throws Exception {
+        importar("{\"etag_test\": {\"etag_valor\": \"etag_304\"}}");
+        HttpResponse<String> export = exportar(null);
+        assertThat(export.statusCode()).isEqualTo(200);
+        String etag = etagOf(export);
+
+        HttpResponse<String> noModificado = exportar(etag);
+        assertThat(noModificado.statusCode()).isEqualTo(304);
+        assertThat(noModificado.body()).isEmpty();
+        assertThat(etagOf(noModificado)).isEqualTo(etag);
+    }
+
+    @Test
+    void elEtagCambiaTrasImportarActualizarYBorrar() throws Exception {
+        importar("{\"etag_test\": {\"etag_valor\": \"etag_uno\", \"etag_borrar\": \"etag_x\"}}");
+        HttpResponse<String> export = exportar(null);
+        String etag = etagOf(export);
+        assertThat(rama(export).path("etag_valor").asText()).isEqualTo("etag_uno");
+
+        // Importación
+        importar("{\"etag_test\": {\"etag_valor\": \"etag_dos\", \"etag_borrar\": \"etag_x\"}}");
+        export = exportar(etag);
+        assertThat(export.statusCode()).isEqualTo(200);
+        assertThat(etagOf(export)).isNotEqualTo(etag);
+        assertThat(rama(export).path("etag_valor").asText()).isEqualTo("etag_dos");
+        etag = etagOf(export);
+
+        // Actualizaciones seguidas: cada lectura tiene que ver la última, no la copia que se está reconstruyendo
+        ObjectNode config = findConfig("etag_dos");
+        for (int i = 0; i < 10; i++) {
+            String valor = "etag_tres_" + i;
+            config.put("defaultValue", valor);
+            assertThat(send(HttpRequest.newBuilder(uri("/api/config/" + config.get("id").asLong()))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(config)))
+                    .build()).statusCode()).isEqualTo(200);
+
+            export = exportar(etag);
+            assertThat(export.statusCode()).isEqualTo(200);
+            assertThat(etagOf(export)).isNotEqualTo(etag);
+            assertThat(rama(export).path("etag_valor").asText()).isEqualTo(valor);
+            etag = etagOf(export);
+        }
+
+        // Borrado
+        long borrar = findConfig("etag_x").get("id").asLong();
+        assertThat(send(HttpRequest.newBuilder(uri("/api/config/" + borrar)).DELETE().build()).statusCode())
+                .isEqualTo(204);
+        export = exportar(etag);
+        assertThat(export.statusCode()).isEqualTo(200);
+        assertThat(etagOf(export)).isNotEqualTo(etag);
+        assertThat(rama(export).has("etag_borrar")).isFalse();
+    }
+
+    private void importar(String json) throws Exception {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/config/import"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build());
+        assertThat(response.statusCode()).as(response.body()).isEqualTo(200);
+    }
+
+    private HttpResponse<String> exportar(String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri("/api/config/export")).GET();
+        if (ifNoneMatch != null) request.header("If-None-Match", ifNoneMatch);
+        return send(request.build());
+    }
+
+    private JsonNode rama(HttpResponse<String> export) throws Exception {
+        return objectMapper.readTree(export.body()).path(ROOT);
+    }
+
+    // Config con ese valor, tal como lo devuelve el listado (con su padre y su atributo, para el PUT)
+    private ObjectNode findConfig(String defaultValue) throws Exception {
+        for (JsonNode config : objectMapper.readTree(send(HttpRequest.newBuilder(uri("/api/config")).GET().build()).body())) {
+            if (defaultValue.equals(config.path("defaultValue").asText(null))) return (ObjectNode) config;
+        }
+        throw new AssertionError("No hay ningún Config con valor " + defaultValue);
+    }
+
+    private static String etagOf(HttpResponse<?> response) {
+        return response.headers().firstValue("ETag").orElseThrow(() -> new AssertionError("Respuesta sin ETag"));
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,111 @@
+package com.ejemploAPI.controllers;
+
+import com.ejemploAPI.services.ConfigFormat;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/* Ida y vuelta por los formatos binarios a través de la API: se importa un JSON, se exporta en Smile o CBOR,
+   se vuelve a importar en ese formato y la exportación JSON tiene que quedar igual que antes
+   Solo se reimporta la rama del test (sacada de la exportación binaria y codificada otra vez en el mismo formato)
+   para no tocar los nodos raíz de otros tests
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ConfigFormatRoundTripTests {
+
+    private static final String ROOT = "formato_test";
+
+    // Texto, entero, long, decimal, booleano, enum, listas de números y de enums y un objeto anidado
+    private static final String DOCUMENTO = """
+            {"formato_test": {
+                "formato_nombre": "Juan",
+                "formato_cantidad": 200,
+                "formato_identificador": 10000000000,
+                "formato_precio": 12.5,
+                "formato_activo": true,
+                "formato_color": "rojo",
+                "formato_numeros": [2, 4, 6],
+                "formato_dias": ["lunes", "MARTES"],
+                "formato_direccion": {"formato_ciudad": "Santander", "formato_numero": 7}
+            }}""";
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @EnumSource(value = ConfigFormat.class, names = {"SMILE", "CBOR"})
+    void exportarYReimportarEnBinarioConservaElArbol(ConfigFormat format) throws Exception {
+        importar(DOCUMENTO.getBytes(), ConfigFormat.JSON);
+        JsonNode esperado = exportar(ConfigFormat.JSON).get(ROOT);
+        assertThat(esperado).isNotNull();
+
+        // La exportación binaria ya tiene que traer el mismo árbol, con los mismos tipos de número
+        JsonNode binario = exportar(format);
+        assertThat(binario.get(ROOT)).isEqualTo(esperado);
+
+        ObjectNode rama = objectMapper.createObjectNode().set(ROOT, binario.get(ROOT));
+        importar(format.newObjectMapper().writeValueAsBytes(rama), format);
+        assertThat(exportar(ConfigFormat.JSON).get(ROOT)).isEqualTo(esperado);
+    }
+
+    // El Accept se negocia por q: un binario con q baja delante de JSON no gana, y uno con q=0 no se sirve nunca
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "/api/config/export        | application/cbor;q=0.1, application/json        | application/json",
+            "/api/config/export/stream | application/cbor;q=0.1, application/json        | application/json",
+            "/api/config/export        | application/json;q=0.5, application/cbor        | application/cbor",
+            "/api/config/export/stream | application/x-jackson-smile;q=0, */*;q=0.8     | application/json",
+            "/api/config/export        | application/json;q=0, */*                      | application/x-jackson-smile"
+    })
+    void acceptSeNegociaPorCalidad(String path, String accept, String esperado) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(path))
+                .header("Accept", accept)
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+                contentType -> assertThat(contentType).startsWith(esperado));
+    }
+
+    private void importar(byte[] body, ConfigFormat format) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/config/import"))
+                .header("Content-Type", format.getMediaType().toString())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).as(response.body()).isEqualTo(200);
+    }
+
+    private JsonNode exportar(ConfigFormat format) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/config/export"))
+                .header("Accept", format.getMediaType().toString())
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+                contentType -> assertThat(contentType).startsWith(format.getMediaType().toString()));
+        return format.newObjectMapper().readTree(response.body());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
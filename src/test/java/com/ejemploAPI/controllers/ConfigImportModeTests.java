@@ -0,0 +1,77 @@
+package com.ejemploAPI.controllers;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/* Los modos de importación son excluyentes: una petición que combina dos o más recibe 400 y no importa nada,
+   en lugar de un 200 con solo uno de los modos
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ConfigImportModeTests {
+
+    private static final String DOCUMENTO = """
+            {"modo_test": {"modo_valor": 1}}""";
+
+    // Raíz que solo importan las peticiones rechazadas: no puede aparecer nunca en la exportación
+    private static final String RECHAZADO = """
+            {"modo_rechazado": {"modo_valor": 1}}""";
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/api/config/import?streaming=true&incremental=true",
+            "/api/config/import?streaming=true&parallel=true",
+            "/api/config/import?incremental=true&parallel=true",
+            "/api/config/import?streaming=true&incremental=true&parallel=true",
+            "/api/config/import-jobs?incremental=true&parallel=true"
+    })
+    void combinarModosEsUnaPeticionIncorrecta(String path) throws Exception {
+        HttpResponse<String> response = importar(path, RECHAZADO);
+
+        assertThat(response.statusCode()).isEqualTo(400);
+        assertThat(response.body()).contains("no se pueden combinar");
+        assertThat(exportar()).doesNotContain("modo_rechazado");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/api/config/import",
+            "/api/config/import?streaming=true",
+            "/api/config/import?incremental=true",
+            "/api/config/import?parallel=true"
+    })
+    void unSoloModoSeAcepta(String path) throws Exception {
+        assertThat(importar(path, DOCUMENTO).statusCode()).isEqualTo(200);
+        assertThat(exportar()).contains("modo_test");
+    }
+
+    private HttpResponse<String> importar(String path, String documento) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(documento))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String exportar() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/config/export")).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
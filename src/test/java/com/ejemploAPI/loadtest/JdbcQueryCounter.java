@@ -0,0 +1,83 @@
+package com.ejemploAPI.loadtest;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* Cuenta las sentencias que la aplicación manda a la base de datos envolviendo el DataSource
+   Cuenta en JDBC y no con las estadísticas de Hibernate para incluir las inserciones por lotes de
+   ConfigBatchWriter (JdbcTemplate). Cada execute* cuenta una vez, así que un lote es una sola sentencia
+ */
+@TestConfiguration(proxyBeanMethods = false)
+class JdbcQueryCounter {
+
+    private static final AtomicLong executions = new AtomicLong();
+
+    static long count() {
+        return executions.get();
+    }
+
+    static void reset() {
+        executions.set(0);
+    }
+
+    @Bean
+    static BeanPostProcessor countingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)
+                        ? new CountingDataSource(dataSource) : bean;
+            }
+        };
+    }
+
+    private static final class CountingDataSource extends DelegatingDataSource {
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counting(super.getConnection(), Connection.class);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return counting(super.getConnection(username, password), Connection.class);
+        }
+    }
+
+    // Las sentencias que devuelve la conexión se envuelven igual para contar sus execute*
+    private static <T> T counting(T target, Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getName().startsWith("execute")) executions.incrementAndGet();
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            Class<?> returnType = method.getReturnType();
+            if (result instanceof Statement && returnType.isInterface() && Statement.class.isAssignableFrom(returnType)) {
+                return counting(result, cast(returnType));
+            }
+            return result;
+        }));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<Object> cast(Class<?> type) {
+        return (Class<Object>) type;
+    }
+}
@@ -0,0 +1,163 @@
+package com.ejemploAPI.loadtest;
+
+import com.ejemploAPI.benchmark.ConfigDocumentGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/* Importa, reimporta y exporta documentos grandes generados con ConfigDocumentGenerator contra la aplicación
+   arrancada en un puerto aleatorio, y deja en el log por cada fase el tiempo, las sentencias SQL y el pico de heap
+   Solo se ejecuta con -Dloadtest=true:
+       mvn test -Dloadtest=true -Dtest=LargeDocumentLoadTest
+   Parámetros: -Dloadtest.shapes (deep,wide,list-heavy), -Dloadtest.scale (1, multiplica las claves raíz)
+   y -Dloadtest.seed (42); con la misma semilla el documento es siempre el mismo
+   Por defecto usa el H2 de los tests; para medir contra un MySQL local basta con sobreescribir spring.datasource.*
+   El heap es el de toda la JVM (aplicación y test) muestreado cada 10 ms. Las sentencias incluyen la
+   reconstrucción en segundo plano de la copia de /export que lanza cada importación
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(JdbcQueryCounter.class)
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class LargeDocumentLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LargeDocumentLoadTest.class);
+
+    @LocalServerPort
+    private int port;
+
+    @TempDir
+    private Path dir;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @FunctionalInterface
+    private interface Phase {
+        String run() throws Exception;
+    }
+
+    @Test
+    void importaReimportaYExportaDocumentosGrandes() throws Exception {
+        String[] shapes = System.getProperty("loadtest.shapes", "deep,wide,list-heavy").split(",");
+        double scale = Double.parseDouble(System.getProperty("loadtest.scale", "1"));
+        long seed = Long.getLong("loadtest.seed", 42);
+
+        StringBuilder table = new StringBuilder(String.format("%n%-11s %-14s %10s %10s %12s  %s",
+                "Forma", "Fase", "Tiempo ms", "Sentencias", "Pico heap MB", "Detalle"));
+        for (String name : shapes) {
+            name = name.trim();
+            ConfigDocumentGenerator.Shape shape = ConfigDocumentGenerator.Shape.preset(name).scaled(scale);
+            // Cada forma con sus propias claves raíz para que la primera importación no reemplace la de otra
+            Path file = dir.resolve(name + ".json");
+            try (OutputStream out = Files.newOutputStream(file)) {
+                ConfigDocumentGenerator.write(shape, seed, name + "_", out);
+            }
+            log.info("Documento '{}' generado: {} ({} bytes)", name, shape, Files.size(file));
+
+            table.append(measure(name, "importación", () -> importFile(file)));
+            table.append(measure(name, "reimportación", () -> importFile(file)));
+            table.append(measure(name, "exportación", this::export));
+        }
+        log.info("Resultados de la prueba con documentos grandes (semilla {}, escala {}):{}", seed, scale, table);
+    }
+
+    private String measure(String shape, String phase, Phase action) throws Exception {
+        // Se parte de un heap recién recogido para que el pico sea el de la fase
+        System.gc();
+        JdbcQueryCounter.reset();
+        String detail;
+        long elapsed;
+        long peak;
+        try (HeapSampler sampler = new HeapSampler()) {
+            long start = System.nanoTime();
+            detail = action.run();
+            elapsed = System.nanoTime() - start;
+            peak = sampler.peakBytes();
+        }
+        return String.format("%n%-11s %-14s %10d %10d %12d  %s", shape, phase,
+                TimeUnit.NANOSECONDS.toMillis(elapsed), JdbcQueryCounter.count(), peak / (1024 * 1024), detail);
+    }
+
+    private String importFile(Path file) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/config/import?summary=true"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofFile(file))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).as(response.body()).isEqualTo(200);
+        JsonNode result = objectMapper.readTree(response.body());
+        return "procesados=" + result.path("nodosProcesados").asInt()
+                + " creados=" + result.path("nodosCreados").asInt()
+                + " actualizados=" + result.path("nodosActualizados").asInt()
+                + " eliminados=" + result.path("nodosEliminados").asInt();
+    }
+
+    // Exportación en streaming y compacta; la respuesta se descarta según llega
+    private String export() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/config/export/stream?pretty=false")).GET().build();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        assertThat(response.statusCode()).isEqualTo(200);
+        try (InputStream body = response.body()) {
+            return "bytes=" + body.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    // Máximo del heap usado, muestreado cada 10 ms en un hilo aparte
+    private static final class HeapSampler implements AutoCloseable {
+
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final AtomicLong peak = new AtomicLong();
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        HeapSampler() {
+            thread = Thread.ofPlatform().daemon().name("heap-sampler").start(() -> {
+                while (running) {
+                    peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+        }
+
+        long peakBytes() {
+            return Math.max(peak.get(), memory.getHeapMemoryUsage().getUsed());
+        }
+
+        @Override
+        public void close() throws InterruptedException {
+            running = false;
+            thread.join();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.ejemploAPI.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/* Prueba de carga con tráfico mixto de lecturas e importaciones contra la aplicación arrancada en un puerto aleatorio
+   Solo se ejecuta con -Dloadtest=true. Cada subclase fija el modo de hilos de Tomcat y el resultado
+   (peticiones por segundo y p99 de lecturas e importaciones) se escribe en el log para comparar los dos modos:
+       mvn test -Dloadtest=true -Dtest='*ThreadsLoadTest'
+   Parámetros: -Dloadtest.clients (200), -Dloadtest.seconds (20) y -Dloadtest.import-ratio (0.1)
+   Por defecto usa el H2 de los tests; para medir contra MySQL basta con sobreescribir spring.datasource.*
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+abstract class MixedTrafficLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(MixedTrafficLoadTest.class);
+
+    private static final String SEED_JSON = """
+            {"carga": {"nombre": "Juan", "cantidad": 200, "activo": true, "colores": ["ROJO", "VERDE"],
+                       "direccion": {"calle": "Mayor", "numero": 1}}}
+            """;
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    protected abstract String modo();
+
+    @Test
+    void traficoMixtoDeLecturasEImportaciones() throws Exception {
+        int clients = Integer.getInteger("loadtest.clients", 200);
+        int seconds = Integer.getInteger("loadtest.seconds", 20);
+        double importRatio = Double.parseDouble(System.getProperty("loadtest.import-ratio", "0.1"));
+
+        // La importación inicial crea los atributos que comparten todas las importaciones de la prueba
+        assertThat(send(importRequest(SEED_JSON)).statusCode()).isEqualTo(200);
+        List<Long> ids = configIds();
+        assertThat(ids).isNotEmpty();
+
+        List<Long> readLatencies = Collections.synchronizedList(new ArrayList<>());
+        List<Long> importLatencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger errores = new AtomicInteger();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        try (ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                // Cada cliente importa su propia clave raíz para no pisar el subárbol de otro
+                String importJson = SEED_JSON.replace("\"carga\"", "\"carga_" + c + "\"");
+                clientes.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        boolean esImportacion = random.nextDouble() < importRatio;
+                        HttpRequest request = esImportacion
+                                ? importRequest(importJson)
+                                : readRequest(ids.get(random.nextInt(ids.size())), random.nextInt(3));
+                        long inicio = System.nanoTime();
+                        try {
+                            if (send(request).statusCode() >= 500) errores.incrementAndGet();
+                        } catch (Exception e) {
+                            errores.incrementAndGet();
+                        }
+                        (esImportacion ? importLatencies : readLatencies).add(System.nanoTime() - inicio);
+                    }
+                    return null;
+                });
+            }
+        }
+
+        int total = readLatencies.size() + importLatencies.size();
+        log.info("[{}] clientes={} segundos={} peticiones={} ({} peticiones/s) errores={}",
+                modo(), clients, seconds, total, total / seconds, errores.get());
+        log.info("[{}] lecturas={} p50={} ms p99={} ms | importaciones={} p50={} ms p99={} ms",
+                modo(), readLatencies.size(), percentileMs(readLatencies, 50), percentileMs(readLatencies, 99),
+                importLatencies.size(), percentileMs(importLatencies, 50), percentileMs(importLatencies, 99));
+
+        assertThat(total).isPositive();
+        assertThat(errores.get()).isLessThan(Math.max(1, total / 100));
+    }
+
+    // Lecturas repartidas entre un Config por id, su subárbol y la lista de atributos
+    private HttpRequest readRequest(long id, int tipo) {
+        String path = switch (tipo) {
+            case 0 -> "/api/config/" + id;
+            case 1 -> "/api/config/" + id + "/tree";
+            default -> "/api/attributes";
+        };
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest importRequest(String json) {
+        return HttpRequest.newBuilder(uri("/api/config/import"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private List<Long> configIds() throws Exception {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/config")).GET().build());
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode config : objectMapper.readTree(response.body())) {
+            ids.add(config.get("id").asLong());
+        }
+        return ids;
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static long percentileMs(List<Long> latencies, int percentile) {
+        if (latencies.isEmpty()) return 0;
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sorted.get(Math.max(index, 0)));
+    }
+}
@@ -0,0 +1,13 @@
+package com.ejemploAPI.loadtest;
+
+import org.springframework.test.context.TestPropertySource;
+
+// Tomcat con su pool de hilos de plataforma (200 por defecto)
+@TestPropertySource(properties = "spring.threads.virtual.enabled=false")
+class PlatformThreadsLoadTest extends MixedTrafficLoadTest {
+
+    @Override
+    protected String modo() {
+        return "hilos de plataforma";
+    }
+}
@@ -0,0 +1,13 @@
+package com.ejemploAPI.loadtest;
+
+import org.springframework.test.context.TestPropertySource;
+
+// Cada petición en un hilo virtual: el único límite de concurrencia es el pool de conexiones de Hikari
+@TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadsLoadTest extends MixedTrafficLoadTest {
+
+    @Override
+    protected String modo() {
+        return "hilos virtuales";
+    }
+}
@@ -0,0 +1,127 @@
+package com.ejemploAPI.repositories;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/* Comprueba en H2 que las consultas de los repositorios usan los índices de las migraciones V2 y V3
+   No se escribe el SQL a mano: se llama al método del repositorio, SqlCapture guarda la sentencia que genera
+   Hibernate y se le pasa EXPLAIN con los mismos parámetros. Así el test sigue al SQL real si cambia la consulta
+   Se insertan unas filas para que el optimizador no vea las tablas vacías y el test hace rollback al terminar
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.ejemploAPI.repositories.ConfigIndexPlanTests$SqlCapture")
+@Transactional
+class ConfigIndexPlanTests {
+
+    private static final long TYPE_ID = 9001;
+    private static final long ATTRIBUTE_ID = 9001;
+    private static final long ROOT_ID = 9001;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ConfigRepository configRepository;
+
+    @Autowired
+    private AttributeRepository attributeRepository;
+
+    @Autowired
+    private AttributeTypeRepository attributeTypeRepository;
+
+    @Autowired
+    private AttributeTypeValueRepository attributeTypeValueRepository;
+
+    // Sentencias que prepara Hibernate, en orden
+    public static class SqlCapture implements StatementInspector {
+
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    void insertarDatos() {
+        for (int i = 0; i < 20; i++) {
+            jdbcTemplate.update("INSERT INTO attribute_type (id, type, is_list, is_enum) VALUES (?, ?, ?, TRUE)",
+                    TYPE_ID + i, "PLAN_TEST_" + i / 2, i % 2 == 0);
+        }
+        for (int i = 0; i < 20; i++) {
+            jdbcTemplate.update("INSERT INTO attribute (id, name, attribute_type_id) VALUES (?, ?, ?)",
+                    ATTRIBUTE_ID + i, "plan_test_" + i, TYPE_ID);
+            jdbcTemplate.update("INSERT INTO attribute_type_value (attribute_type_id, `value`) VALUES (?, ?)",
+                    TYPE_ID, "VALOR_" + i);
+        }
+        jdbcTemplate.update("INSERT INTO config (id, attribute_id, parent, path) VALUES (?, ?, NULL, '/')", ROOT_ID, ATTRIBUTE_ID);
+        for (int i = 1; i <= 60; i++) {
+            long parent = ROOT_ID + (i < 3 || i % 3 == 0 ? 0 : i % 3);
+            jdbcTemplate.update("INSERT INTO config (id, attribute_id, parent, default_value) VALUES (?, ?, ?, ?)",
+                    ROOT_ID + i, ATTRIBUTE_ID + i % 20, parent, "v" + i);
+        }
+        SqlCapture.statements.clear();
+    }
+
+    @Test
+    void hijosDeUnPadreEnOrdenDeIdUsanIndiceParentId() {
+        configRepository.findByParentIdOrderByIdAsc(ROOT_ID);
+        assertThat(plan(ROOT_ID)).contains("idx_config_parent_id");
+    }
+
+    @Test
+    void configPorAtributoYPadreUsaIndiceAttributeParent() {
+        configRepository.findFirstByAttributeIdAndParentIdAndDefaultValue(ATTRIBUTE_ID + 1, ROOT_ID, "v1");
+        assertThat(plan(ATTRIBUTE_ID + 1, ROOT_ID, "v1")).contains("idx_config_attribute_parent");
+    }
+
+    @Test
+    void atributoPorNombreUsaIndiceUnico() {
+        attributeRepository.findByName("plan_test_1");
+        assertThat(plan("plan_test_1")).contains("uk_attribute_name");
+    }
+
+    @Test
+    void atributoConTipoPorNombreUsaIndiceUnico() {
+        attributeRepository.findWithAttributeTypeByName("plan_test_1");
+        assertThat(plan("plan_test_1")).contains("uk_attribute_name");
+    }
+
+    @Test
+    void tipoPorTypeListaYEnumUsaIndiceUnico() {
+        attributeTypeRepository.findByTypeAndIsListAndIsEnum("PLAN_TEST_1", false, true);
+        assertThat(plan("PLAN_TEST_1", false, true)).contains("uk_attribute_type_type_list_enum");
+    }
+
+    @Test
+    void valorDeEnumPorTipoYValorUsaIndiceCompuesto() {
+        attributeTypeValueRepository.findFirstByAttributeTypeIdAndValue(TYPE_ID, "VALOR_1");
+        assertThat(plan(TYPE_ID, "VALOR_1")).contains("idx_attribute_type_value_type_value");
+    }
+
+    /* EXPLAIN de la última sentencia capturada con los parámetros de la llamada
+       Los métodos findFirst llevan el límite como último parámetro; si sobran marcadores se rellenan con 1
+     */
+    private String plan(Object... args) {
+        assertThat(SqlCapture.statements).isNotEmpty();
+        String sql = SqlCapture.statements.get(SqlCapture.statements.size() - 1);
+        List<Object> params = new ArrayList<>(Arrays.asList(args));
+        long placeholders = sql.chars().filter(c -> c == '?').count();
+        while (params.size() < placeholders) params.add(1);
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, params.toArray()).toLowerCase();
+    }
+}
@@ -0,0 +1,79 @@
+package com.ejemploAPI.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/* La exportación escribe los hermanos por id: después de importar, las claves de cada objeto y los items de cada
+   lista tienen que salir en el orden del documento aunque las hojas vayan al lote y los Map y listas no
+ */
+@SpringBootTest
+class ConfigImportOrderTests {
+
+    private static final String ROOT = "orden_test";
+
+    /* Hermanos que mezclan primitivos, objetos y listas, con primitivos antes y después de cada contenedor
+       orden_objetos empieza por un objeto: en streaming se importa item a item sin materializar la lista
+     */
+    private static final String DOCUMENTO = """
+            {"orden_test": {
+                "orden_a": {"orden_x": 1, "orden_y": {"orden_z": 2}, "orden_w": 3},
+                "orden_b": "dos",
+                "orden_lista": [1, {"orden_k": 1}, 2],
+                "orden_c": 3,
+                "orden_d": {"orden_e": [4, 5], "orden_f": 6},
+                "orden_objetos": [{"orden_m": 1}, 7, {"orden_n": 2, "orden_p": {"orden_q": 3}, "orden_r": 4}],
+                "orden_g": "siete"
+            }}""";
+
+    @Autowired
+    private ConfigService configService;
+
+    @Autowired
+    private ConfigExportService configExportService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void importacionCompletaConservaElOrdenDelDocumento() throws Exception {
+        configService.importJson(DOCUMENTO);
+
+        assertThat(estructura(exportRoot())).isEqualTo(estructura(objectMapper.readTree(DOCUMENTO).get(ROOT)));
+    }
+
+    @Test
+    void importacionEnStreamingConservaElOrdenDelDocumento() throws Exception {
+        configService.importJsonStream(new ByteArrayInputStream(DOCUMENTO.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(estructura(exportRoot())).isEqualTo(estructura(objectMapper.readTree(DOCUMENTO).get(ROOT)));
+    }
+
+    private JsonNode exportRoot() throws Exception {
+        return objectMapper.readTree(configExportService.exportToJson()).get(ROOT);
+    }
+
+    /* Claves y forma del árbol en orden, sin los valores: JsonNode compara los objetos sin tener en cuenta el orden
+       de las claves, y los valores exportados dependen del tipo inferido
+     */
+    private static String estructura(JsonNode node) {
+        List<String> partes = new ArrayList<>();
+        if (node.isObject()) {
+            node.fields().forEachRemaining(field -> partes.add(field.getKey() + ":" + estructura(field.getValue())));
+            return "{" + String.join(",", partes) + "}";
+        }
+        if (node.isArray()) {
+            node.elements().forEachRemaining(item -> partes.add(estructura(item)));
+            return "[" + String.join(",", partes) + "]";
+        }
+        return "v";
+    }
+}
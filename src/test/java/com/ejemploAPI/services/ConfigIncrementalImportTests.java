@@ -0,0 +1,74 @@
+package com.ejemploAPI.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/* La importación incremental tiene que dejar lo mismo que la importación completa del mismo documento
+   Se compara la exportación de la rama del test después de cada una; el resto de nodos raíz no se toca
+ */
+@SpringBootTest
+class ConfigIncrementalImportTests {
+
+    private static final String ROOT = "sync_test";
+
+    // Lista con un objeto delante de dos números, dos Map de primitivos y un objeto anidado
+    private static final String ANTES = """
+            {"sync_test": {
+                "sync_lista": [{"sync_k": 1}, 2, 3],
+                "sync_map": {"sync_a": "uno", "sync_c": "tres"},
+                "sync_nodo": {"sync_x": 1},
+                "sync_mixto": {"sync_p": 1, "sync_r": 3}
+            }}""";
+
+    /* El primer item pasa a ser un número, aparece una clave en medio del Map y el nodo gana un hijo
+       En sync_mixto entran una hoja nueva (va al lote) y un objeto nuevo (se guarda directamente) entre dos claves
+     */
+    private static final String DESPUES = """
+            {"sync_test": {
+                "sync_lista": [1, 2, 3],
+                "sync_map": {"sync_a": "uno", "sync_b": "dos", "sync_c": "tres"},
+                "sync_nodo": {"sync_x": 1, "sync_y": 2},
+                "sync_mixto": {"sync_p": 1, "sync_n": 9, "sync_q": {"sync_s": 2}, "sync_r": 3}
+            }}""";
+
+    @Autowired
+    private ConfigService configService;
+
+    @Autowired
+    private ConfigExportService configExportService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void incrementalExportaLoMismoQueLaImportacionCompleta() throws Exception {
+        configService.importJson(ANTES);
+        configService.importJsonIncremental(DESPUES);
+        JsonNode incremental = exportRoot();
+
+        configService.importJson(DESPUES);
+        JsonNode completa = exportRoot();
+
+        assertThat(incremental).isEqualTo(completa);
+        // JsonNode compara los objetos sin orden: el de las claves se comprueba aparte
+        assertThat(fieldNames(incremental.get("sync_map"))).containsExactly("sync_a", "sync_b", "sync_c");
+        assertThat(fieldNames(incremental.get("sync_mixto"))).containsExactly("sync_p", "sync_n", "sync_q", "sync_r");
+    }
+
+    private JsonNode exportRoot() throws Exception {
+        return objectMapper.readTree(configExportService.exportToJson()).get(ROOT);
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}